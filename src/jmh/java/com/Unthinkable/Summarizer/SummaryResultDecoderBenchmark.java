@@ -0,0 +1,94 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Decoding a Gemini generateContent response into a SummaryResult: the previous tree + regex path
+// against SummaryResultDecoder. Run with ./gradlew jmh; compare gc.alloc.rate.norm (bytes/op).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SummaryResultDecoderBenchmark {
+
+    @Param({"20", "400"})
+    public int actionItems;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String response;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("summaryText", "The team reviewed the release plan. ".repeat(actionItems));
+        summary.put("keyDecisions", "Ship on Friday; freeze on Thursday. ".repeat(actionItems / 4 + 1));
+        var items = summary.putArray("actionItems");
+        for (int i = 0; i < actionItems; i++) {
+            items.addObject()
+                    .put("description", "Follow up on item " + i + " with the platform team")
+                    .put("assignedTo", "Owner " + (i % 7))
+                    .put("dueDate", "2025-03-" + String.format("%02d", i % 28 + 1));
+        }
+        // Models usually fence their JSON, which sent the old path through the regex fallback
+        String content = "```json\n" + mapper.writerWithDefaultPrettyPrinter().writeValueAsString(summary) + "\n```";
+        ObjectNode root = mapper.createObjectNode();
+        root.putArray("candidates").addObject()
+                .putObject("content").putArray("parts").addObject().put("text", content);
+        response = mapper.writeValueAsString(root);
+    }
+
+    @Benchmark
+    public SummaryResult decoder() {
+        return SummaryResultDecoder.decode(
+                SummaryResultDecoder.textAt(response, "candidates", "0", "content", "parts", "0", "text"));
+    }
+
+    @Benchmark
+    public SummaryResult treeAndRegex() throws Exception {
+        String content = mapper.readTree(response)
+                .path("candidates").path(0).path("content").path("parts").path(0).path("text").asText("");
+        JsonNode json;
+        try {
+            json = mapper.readTree(content);
+        } catch (Exception e) {
+            String stripped = content.replaceAll("(?s)```json|```", "").trim();
+            json = mapper.readTree(stripped);
+        }
+        SummaryResult result = new SummaryResult();
+        result.setSummaryText(json.path("summaryText").asText(""));
+        result.setKeyDecisions(json.path("keyDecisions").asText(""));
+        List<SummaryResult.ActionItemSuggestion> items = new ArrayList<>();
+        for (JsonNode it : json.path("actionItems")) {
+            SummaryResult.ActionItemSuggestion s = new SummaryResult.ActionItemSuggestion();
+            s.setDescription(it.path("description").asText(""));
+            s.setAssignedTo(it.path("assignedTo").asText(null));
+            String due = it.path("dueDate").asText(null);
+            if (due != null && !due.isBlank() && due.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                s.setDueDate(java.time.LocalDate.parse(due));
+            }
+            items.add(s);
+        }
+        result.setActionItems(items);
+        return result;
+    }
+}
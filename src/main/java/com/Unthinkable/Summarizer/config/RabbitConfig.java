@@ -1,18 +1,31 @@
 package com.Unthinkable.Summarizer.config;
 
+import com.Unthinkable.Summarizer.service.queue.PipelineStage;
+import com.Unthinkable.Summarizer.service.queue.RetryTopology;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @EnableRabbit
 public class RabbitConfig {
@@ -41,6 +54,60 @@ public class RabbitConfig {
         return BindingBuilder.bind(meetingQueue).to(meetingExchange).with(routingKey);
     }
 
+    // Staged pipeline: one durable queue per stage, bound with "<routing>.<stage>"
+    @Bean
+    @ConditionalOnProperty(name = "app.pipeline.staged", havingValue = "true")
+    public Declarables stageQueues(TopicExchange meetingExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            Queue queue = new Queue(queueName + "." + stage.key(), true);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(meetingExchange).with(routingKey + "." + stage.key()));
+        }
+        return new Declarables(declarables);
+    }
+
+    // Delay tiers for failed jobs (see RetryTopology): TTL queues dead-letter back onto the meeting
+    // exchange, so waiting retries hold no consumer. The main queue's arguments are left unchanged;
+    // workers republish failures explicitly instead of rejecting them.
+    @Bean
+    public Declarables retryQueues(RetryTopology retryTopology) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (RetryTopology.Tier tier : retryTopology.tiers()) {
+            FanoutExchange delayExchange = new FanoutExchange(tier.exchange(), true, false);
+            Queue delayQueue = QueueBuilder.durable(tier.queue())
+                    .ttl((int) Math.min(Integer.MAX_VALUE, tier.delay().toMillis()))
+                    .deadLetterExchange(retryTopology.exchange())
+                    .build();
+            declarables.add(delayExchange);
+            declarables.add(delayQueue);
+            declarables.add(BindingBuilder.bind(delayQueue).to(delayExchange));
+        }
+        declarables.add(QueueBuilder.durable(retryTopology.parkingQueue()).build());
+        return new Declarables(declarables);
+    }
+
+    // Meeting jobs spend nearly all their time waiting on ffmpeg, ASR and LLM calls. Each consumer
+    // runs on its own virtual thread, so job concurrency is not bounded by platform threads; the
+    // scarce resources underneath (DB connections, ffmpeg CPU) are capped by WorkerResourceGuard and
+    // provider calls by ConcurrencyLimiters. Other spring.rabbitmq.listener.simple.* settings apply.
+    @Bean
+    public SimpleRabbitListenerContainerFactory meetingJobContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                           ConnectionFactory connectionFactory,
+                                                                           @Value("${app.worker.virtual-threads:true}") boolean virtualThreads,
+                                                                           @Value("${app.worker.concurrency:32}") int concurrency,
+                                                                           @Value("${app.worker.prefetch:1}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        if (virtualThreads) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("meeting-job-"));
+        }
+        factory.setConcurrentConsumers(Math.max(1, concurrency));
+        factory.setMaxConcurrentConsumers(Math.max(1, concurrency));
+        factory.setPrefetchCount(Math.max(1, prefetch));
+        return factory;
+    }
+
     @Bean
     public MessageConverter jacksonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -50,6 +117,8 @@ public class RabbitConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jacksonMessageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jacksonMessageConverter);
+        // Unroutable messages come back to the sender (OutboxRelay treats them as not delivered)
+        template.setMandatory(true);
         return template;
     }
 }
@@ -8,8 +8,8 @@ import com.Unthinkable.Summarizer.repository.SummaryRepository;
 import com.Unthinkable.Summarizer.repository.TranscriptRepository;
 import com.Unthinkable.Summarizer.service.CurrentUserService;
 import com.Unthinkable.Summarizer.service.MeetingProcessingService;
-import com.Unthinkable.Summarizer.service.queue.MeetingJobPublisher;
 import com.Unthinkable.Summarizer.service.StorageService;
+import com.Unthinkable.Summarizer.service.asr.StreamingUploadTranscriber;
 import jakarta.annotation.security.PermitAll;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -34,8 +34,8 @@ public class MeetingController {
     private final SummaryRepository summaryRepository;
     private final ActionItemRepository actionItemRepository;
     private final MeetingProcessingService meetingProcessingService;
-    private final MeetingJobPublisher meetingJobPublisher;
     private final StorageService storageService;
+    private final StreamingUploadTranscriber streamingUploadTranscriber;
 
     @Value("${app.processing.async:true}")
     private boolean asyncProcessing;
@@ -52,9 +52,8 @@ public class MeetingController {
         var user = currentUserService.requireCurrentUserOrGuest();
 
         if (asyncProcessing) {
+            // The job is queued through the outbox; the request never waits on the broker
             var result = meetingProcessingService.createUploadJob(user.getUserId(), title, file);
-            // publish for async processing (fire-and-forget)
-            meetingJobPublisher.publishAsync(result.meetingId());
             // Avoid extra DB read here; we know status is PROCESSING initially
             return ResponseEntity.ok(new MeetingDtos.UploadResponse(result.meetingId(), Meeting.MeetingStatus.PROCESSING));
         } else {
@@ -69,7 +68,8 @@ public class MeetingController {
     public ResponseEntity<MeetingDtos.UploadResponse> uploadRaw(
             HttpServletRequest request,
             @RequestHeader(value = "Content-Type", required = false) String contentType,
-            @RequestParam(value = "title", required = false) String title
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "stream", required = false, defaultValue = "false") boolean streamAsr
     ) throws Exception {
         var user = currentUserService.requireCurrentUserOrGuest();
         String ext = switch (contentType == null ? "" : contentType.toLowerCase()) {
@@ -82,13 +82,15 @@ public class MeetingController {
             default -> ".wav";
         };
         String originalName = "upload" + ext;
-        var savedPath = storageService.saveAudioFromStream(user.getUserId(), request.getInputStream(), originalName);
+        // stream=true: recognize while the body is still arriving; the job then finds the transcript cached
+        var saved = streamAsr
+                ? streamingUploadTranscriber.saveAndTranscribe(user.getUserId(), request.getInputStream(), originalName)
+                : storageService.saveAudioFromStream(user.getUserId(), request.getInputStream(), originalName);
         if (asyncProcessing) {
-            var result = meetingProcessingService.createUploadJobFromPath(user.getUserId(), title, savedPath);
-            meetingJobPublisher.publishAsync(result.meetingId());
+            var result = meetingProcessingService.queueUploadJob(user.getUserId(), title, saved);
             return ResponseEntity.ok(new MeetingDtos.UploadResponse(result.meetingId(), Meeting.MeetingStatus.PROCESSING));
         } else {
-            var result = meetingProcessingService.createUploadJobFromPath(user.getUserId(), title, savedPath);
+            var result = meetingProcessingService.createUploadJobFromPath(user.getUserId(), title, saved);
             meetingProcessingService.reprocessMeeting(result.meetingId());
             var meeting = meetingRepository.findById(result.meetingId()).orElseThrow();
             return ResponseEntity.ok(new MeetingDtos.UploadResponse(meeting.getMeetingId(), meeting.getStatus()));
@@ -120,14 +122,17 @@ public class MeetingController {
 
     @PostMapping("/{id}/reprocess")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<MeetingDtos.Detail> reprocess(@PathVariable("id") Integer id) throws Exception {
+    public ResponseEntity<MeetingDtos.Detail> reprocess(@PathVariable("id") Integer id,
+                                                        @RequestParam(name = "force", defaultValue = "false") boolean force) throws Exception {
         var user = currentUserService.requireCurrentUser();
         var meetingOpt = meetingRepository.findById(id);
         if (meetingOpt.isEmpty() || !meetingOpt.get().getUserId().equals(user.getUserId())) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
+        // Resumes from the last checkpoint; force=true re-runs ASR as well
+        meetingProcessingService.prepareReprocess(id, force);
         if (asyncProcessing) {
-            meetingJobPublisher.publishAsync(id);
+            meetingProcessingService.queueReprocess(id);
         } else {
             meetingProcessingService.reprocessMeeting(id);
         }
@@ -27,6 +27,10 @@ public class Meeting {
     @Column(length = 1024)
     private String audioFilePath;
 
+    // SHA-256 (hex) of the stored audio; keys the transcript cache
+    @Column(length = 64)
+    private String audioSha256;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 32)
     private MeetingStatus status = MeetingStatus.UPLOADED;
@@ -0,0 +1,47 @@
+package com.Unthinkable.Summarizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// Last pipeline stage a meeting completed; a retried or redelivered job resumes after it
+@Entity
+@Data
+@ToString(exclude = "summaryJson")
+@Table(name = "meeting_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_meeting_checkpoints_meeting", columnNames = {"meeting_id"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer checkpointId;
+
+    @Column(name = "meeting_id", nullable = false)
+    private Integer meetingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Stage stage;
+
+    // LLM result saved at SUMMARIZED, so a failure while persisting does not pay for the call again
+    @Lob
+    private String summaryJson;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Stage {
+        TRANSCRIBED, SUMMARIZED, PERSISTED, NOTIFIED
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
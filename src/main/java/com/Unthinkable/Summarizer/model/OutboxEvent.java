@@ -0,0 +1,51 @@
+package com.Unthinkable.Summarizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Meeting job waiting to be published, written in the same transaction as the change that needs it.
+// The relay claims it by pushing availableAt past a lease and deletes it once the broker confirms.
+@Entity
+@Data
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_available", columnList = "available_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long eventId;
+
+    @Column(name = "meeting_id", nullable = false)
+    private Integer meetingId;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static OutboxEvent meetingJob(Integer meetingId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setMeetingId(meetingId);
+        return event;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        if (this.availableAt == null) this.availableAt = this.createdAt;
+    }
+}
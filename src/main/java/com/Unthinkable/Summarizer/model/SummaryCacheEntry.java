@@ -0,0 +1,49 @@
+package com.Unthinkable.Summarizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@ToString(exclude = "resultJson")
+@Table(name = "summary_cache",
+        uniqueConstraints = @UniqueConstraint(name = "uk_summary_cache_key",
+                columnNames = {"transcript_sha256", "provider", "model", "prompt_version"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer cacheId;
+
+    @Column(name = "transcript_sha256", nullable = false, length = 64)
+    private String transcriptSha256;
+
+    @Column(name = "provider", nullable = false, length = 32)
+    private String provider;
+
+    @Column(name = "model", nullable = false, length = 100)
+    private String model;
+
+    @Column(name = "prompt_version", nullable = false, length = 16)
+    private String promptVersion;
+
+    @Lob
+    @Column(nullable = false)
+    private String resultJson;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
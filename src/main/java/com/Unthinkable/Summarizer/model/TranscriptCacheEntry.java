@@ -0,0 +1,46 @@
+package com.Unthinkable.Summarizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@ToString(exclude = "transcriptText")
+@Table(name = "transcript_cache",
+        uniqueConstraints = @UniqueConstraint(name = "uk_transcript_cache_key",
+                columnNames = {"audio_sha256", "language_code", "provider"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer cacheId;
+
+    @Column(name = "audio_sha256", nullable = false, length = 64)
+    private String audioSha256;
+
+    @Column(name = "language_code", nullable = false, length = 32)
+    private String languageCode;
+
+    @Column(name = "provider", nullable = false, length = 32)
+    private String provider;
+
+    @Lob
+    @Column(nullable = false)
+    private String transcriptText;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.Unthinkable.Summarizer.repository;
+
+import com.Unthinkable.Summarizer.model.MeetingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface MeetingCheckpointRepository extends JpaRepository<MeetingCheckpoint, Integer> {
+    Optional<MeetingCheckpoint> findByMeetingId(Integer meetingId);
+}
@@ -0,0 +1,33 @@
+package com.Unthinkable.Summarizer.repository;
+
+import com.Unthinkable.Summarizer.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e.eventId from OutboxEvent e where e.availableAt <= :now order by e.eventId")
+    List<Long> findReadyIds(@Param("now") LocalDateTime now, Pageable page);
+
+    // Conditional on availableAt, so of two relays racing for an event only one claims it
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.claimToken = :token, e.availableAt = :leaseUntil, e.attempts = e.attempts + 1 "
+            + "where e.eventId in :ids and e.availableAt <= :now")
+    int claim(@Param("ids") List<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEvent> findByClaimTokenOrderByEventId(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.lastError = :error where e.eventId in :ids")
+    int recordError(@Param("ids") List<Long> ids, @Param("error") String error);
+}
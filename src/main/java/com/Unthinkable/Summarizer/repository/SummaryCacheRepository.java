@@ -0,0 +1,11 @@
+package com.Unthinkable.Summarizer.repository;
+
+import com.Unthinkable.Summarizer.model.SummaryCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface SummaryCacheRepository extends JpaRepository<SummaryCacheEntry, Integer> {
+    Optional<SummaryCacheEntry> findByTranscriptSha256AndProviderAndModelAndPromptVersion(
+            String transcriptSha256, String provider, String model, String promptVersion);
+}
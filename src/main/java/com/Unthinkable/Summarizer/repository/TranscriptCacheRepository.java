@@ -0,0 +1,10 @@
+package com.Unthinkable.Summarizer.repository;
+
+import com.Unthinkable.Summarizer.model.TranscriptCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface TranscriptCacheRepository extends JpaRepository<TranscriptCacheEntry, Integer> {
+    Optional<TranscriptCacheEntry> findByAudioSha256AndLanguageCodeAndProvider(String audioSha256, String languageCode, String provider);
+}
@@ -0,0 +1,85 @@
+package com.Unthinkable.Summarizer.service;
+
+import com.Unthinkable.Summarizer.model.MeetingCheckpoint;
+import com.Unthinkable.Summarizer.model.MeetingCheckpoint.Stage;
+import com.Unthinkable.Summarizer.repository.MeetingCheckpointRepository;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+// Per-meeting record of the last completed stage. Recording only ever moves a meeting forward, so a
+// redelivered job cannot undo progress (or send the email twice); rewind moves it back explicitly.
+@Service
+@RequiredArgsConstructor
+public class MeetingCheckpoints {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingCheckpoints.class);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final MeetingCheckpointRepository repository;
+
+    public Optional<Stage> completed(Integer meetingId) {
+        return repository.findByMeetingId(meetingId).map(MeetingCheckpoint::getStage);
+    }
+
+    public boolean reached(Integer meetingId, Stage stage) {
+        return completed(meetingId).map(done -> done.compareTo(stage) >= 0).orElse(false);
+    }
+
+    public void record(Integer meetingId, Stage stage) {
+        save(meetingId, stage, null);
+    }
+
+    public void recordSummary(Integer meetingId, SummaryResult result) {
+        try {
+            save(meetingId, Stage.SUMMARIZED, mapper.writeValueAsString(result));
+        } catch (Exception e) {
+            // Only costs a repeated LLM call if a later stage fails
+            log.warn("Could not checkpoint summary for meeting {}: {}", meetingId, e.toString());
+        }
+    }
+
+    public Optional<SummaryResult> savedSummary(Integer meetingId) {
+        Optional<MeetingCheckpoint> checkpoint = repository.findByMeetingId(meetingId);
+        if (checkpoint.isEmpty() || checkpoint.get().getStage().compareTo(Stage.SUMMARIZED) < 0
+                || checkpoint.get().getSummaryJson() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(mapper.readValue(checkpoint.get().getSummaryJson(), SummaryResult.class));
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable summary checkpoint for meeting {}: {}", meetingId, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    // Moves the meeting back to `keep` (or to nothing when null) if it got further than that
+    public void rewind(Integer meetingId, Stage keep) {
+        repository.findByMeetingId(meetingId).ifPresent(checkpoint -> {
+            if (keep == null) {
+                repository.delete(checkpoint);
+            } else if (checkpoint.getStage().compareTo(keep) > 0) {
+                checkpoint.setStage(keep);
+                if (keep.compareTo(Stage.SUMMARIZED) < 0) checkpoint.setSummaryJson(null);
+                repository.save(checkpoint);
+            }
+        });
+    }
+
+    private void save(Integer meetingId, Stage stage, String summaryJson) {
+        MeetingCheckpoint checkpoint = repository.findByMeetingId(meetingId).orElseGet(MeetingCheckpoint::new);
+        if (checkpoint.getStage() != null && checkpoint.getStage().compareTo(stage) >= 0) return;
+        checkpoint.setMeetingId(meetingId);
+        checkpoint.setStage(stage);
+        if (summaryJson != null) checkpoint.setSummaryJson(summaryJson);
+        repository.save(checkpoint);
+    }
+}
@@ -0,0 +1,198 @@
+package com.Unthinkable.Summarizer.service;
+
+import com.Unthinkable.Summarizer.model.Meeting;
+import com.Unthinkable.Summarizer.model.Summary;
+import com.Unthinkable.Summarizer.model.Transcript;
+import com.Unthinkable.Summarizer.repository.MeetingRepository;
+import com.Unthinkable.Summarizer.repository.TranscriptRepository;
+import com.Unthinkable.Summarizer.service.asr.AsrSubmission;
+import com.Unthinkable.Summarizer.service.asr.FfmpegPcmSource;
+import com.Unthinkable.Summarizer.service.asr.LroScheduler;
+import com.Unthinkable.Summarizer.service.asr.TranscriptCache;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import com.Unthinkable.Summarizer.service.queue.MeetingJobPublisher;
+import com.Unthinkable.Summarizer.service.queue.PermanentJobException;
+import com.Unthinkable.Summarizer.service.queue.PipelineStage;
+import com.Unthinkable.Summarizer.service.queue.RetryTopology;
+import com.Unthinkable.Summarizer.service.queue.StageMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Runs one stage of the staged meeting pipeline and queues the next. Stage outputs stay out of the
+// messages: the transcoded audio and the summary JSON are spooled to disk, the transcript is its row.
+//   TRANSCODE  -> 16 kHz mono FLAC in the spool              (ref: spooled audio path)
+//   TRANSCRIBE -> transcript row, or a tracked long-running op (ref: transcript id)
+//   SUMMARIZE  -> summary JSON in the spool                  (ref: spooled JSON path)
+//   PERSIST    -> summary, action items, COMPLETED status    (ref: summary id)
+//   NOTIFY     -> summary email
+@Service
+public class MeetingPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingPipeline.class);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final MeetingProcessingService processing;
+    private final MeetingRepository meetingRepository;
+    private final TranscriptRepository transcriptRepository;
+    private final TranscriptCache transcriptCache;
+    private final FfmpegPcmSource ffmpeg;
+    private final LroScheduler lroScheduler;
+    private final MeetingJobPublisher publisher;
+    private final WorkerResourceGuard resources;
+    private final Path spoolDir;
+    private final boolean transcodeEnabled;
+
+    public MeetingPipeline(MeetingProcessingService processing,
+                           MeetingRepository meetingRepository,
+                           TranscriptRepository transcriptRepository,
+                           TranscriptCache transcriptCache,
+                           FfmpegPcmSource ffmpeg,
+                           LroScheduler lroScheduler,
+                           MeetingJobPublisher publisher,
+                           WorkerResourceGuard resources,
+                           @Value("${app.storage.base-dir:./uploads}") String baseDir,
+                           @Value("${app.pipeline.transcode.enabled:true}") boolean transcodeEnabled) throws IOException {
+        this.processing = processing;
+        this.meetingRepository = meetingRepository;
+        this.transcriptRepository = transcriptRepository;
+        this.transcriptCache = transcriptCache;
+        this.ffmpeg = ffmpeg;
+        this.lroScheduler = lroScheduler;
+        this.publisher = publisher;
+        this.resources = resources;
+        this.spoolDir = Path.of(baseDir).toAbsolutePath().normalize().resolve("pipeline");
+        Files.createDirectories(spoolDir);
+        this.transcodeEnabled = transcodeEnabled;
+    }
+
+    // A failed stage is retried on its own queue after the next delay tier; FAILED once it is parked
+    public void run(StageMessage msg, int attempt) {
+        Integer meetingId = msg.meetingId();
+        long start = System.nanoTime();
+        try {
+            switch (msg.stage()) {
+                case TRANSCODE -> transcode(meetingId);
+                case TRANSCRIBE -> transcribe(meetingId, msg.ref(), attempt);
+                case SUMMARIZE -> summarize(meetingId, msg.ref());
+                case PERSIST -> persist(meetingId, msg.ref());
+                case NOTIFY -> processing.notifyOwner(meetingId);
+            }
+            log.info("Meeting {}: stage {} done in {} ms", meetingId, msg.stage().key(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Meeting {}: stage {} failed on attempt {}: {}", meetingId, msg.stage().key(), attempt, e.toString(), e);
+            // Spooled outputs stay for the retry, which reads the same ref
+            boolean permanent = RetryTopology.isPermanent(e);
+            if (!publisher.retryOrPark(msg, attempt, e, permanent)) {
+                processing.markFailed(meetingId);
+                deleteSpooled(meetingId);
+            }
+        }
+    }
+
+    private void transcode(Integer meetingId) throws Exception {
+        Meeting meeting = processing.beginProcessing(meetingId);
+        // An earlier attempt got past ASR: resume from the stored transcript
+        Optional<Transcript> transcribed = processing.checkpointedTranscript(meetingId);
+        if (transcribed.isPresent()) {
+            forward(meetingId, PipelineStage.SUMMARIZE, String.valueOf(transcribed.get().getTranscriptId()));
+            return;
+        }
+        Path audio = Path.of(meeting.getAudioFilePath());
+        // Identical audio was transcribed before: the next stage answers from the cache without decoding
+        if (!transcodeEnabled || transcriptCache.lookup(meeting.getAudioSha256()).isPresent()) {
+            forward(meetingId, PipelineStage.TRANSCRIBE, audio.toString());
+            return;
+        }
+        Path flac = spoolDir.resolve("meeting-" + meetingId + ".flac");
+        ffmpeg.transcodeToFlac(audio, flac);
+        forward(meetingId, PipelineStage.TRANSCRIBE, flac.toString());
+    }
+
+    private void transcribe(Integer meetingId, String ref, int attempt) throws Exception {
+        Meeting meeting = resources.db(() -> meetingRepository.findById(meetingId))
+                .orElseThrow(() -> new IllegalArgumentException("Meeting not found"));
+        Path audio = ref != null ? Path.of(ref) : null;
+        if (audio == null || !Files.exists(audio)) {
+            // No transcode, or a retry after the spooled copy was already used up
+            audio = Path.of(meeting.getAudioFilePath());
+        }
+        AsrSubmission submission = transcriptCache.submit(meeting.getAudioSha256(), audio);
+        // The audio has been recognized or uploaded for recognition; the spooled copy is done
+        if (audio.toAbsolutePath().normalize().startsWith(spoolDir)) {
+            Files.deleteIfExists(audio);
+        }
+        if (submission.isPending()) {
+            // MeetingProcessingService.onTranscriptionCompleted queues SUMMARIZE once it finishes
+            lroScheduler.track(meetingId, meeting.getAudioSha256(), submission.pending(), attempt);
+            return;
+        }
+        Transcript transcript = processing.saveTranscript(meetingId, submission.transcript());
+        forward(meetingId, PipelineStage.SUMMARIZE, String.valueOf(transcript.getTranscriptId()));
+    }
+
+    private void summarize(Integer meetingId, String ref) throws Exception {
+        // A retry after the LLM call succeeded needs neither the transcript nor another call
+        Optional<SummaryResult> checkpointed = processing.checkpointedSummary(meetingId);
+        SummaryResult result;
+        if (checkpointed.isPresent()) {
+            result = checkpointed.get();
+        } else {
+            Optional<Transcript> stored = resources.db(() -> ref != null
+                    ? transcriptRepository.findById(Integer.valueOf(ref))
+                    : transcriptRepository.findByMeetingId(meetingId));
+            Transcript transcript = stored.orElseThrow(() -> new PermanentJobException("No transcript stored for meeting " + meetingId));
+            result = processing.summarizeTranscript(meetingId, transcript.getTranscriptText());
+        }
+        Path json = spoolDir.resolve("meeting-" + meetingId + "-summary.json");
+        Path tmp = spoolDir.resolve("meeting-" + meetingId + "-summary.json.tmp");
+        Files.write(tmp, mapper.writeValueAsBytes(result));
+        Files.move(tmp, json, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forward(meetingId, PipelineStage.PERSIST, json.toString());
+    }
+
+    private void persist(Integer meetingId, String ref) throws Exception {
+        Path json = Path.of(ref);
+        // A retry after the summary was saved (e.g. the NOTIFY publish failed) goes straight on
+        Optional<Summary> persisted = processing.persistedSummary(meetingId);
+        if (persisted.isPresent()) {
+            Files.deleteIfExists(json);
+            forward(meetingId, PipelineStage.NOTIFY, String.valueOf(persisted.get().getSummaryId()));
+            return;
+        }
+        SummaryResult result = Files.exists(json)
+                ? mapper.readValue(json.toFile(), SummaryResult.class)
+                : processing.checkpointedSummary(meetingId)
+                        .orElseThrow(() -> new PermanentJobException("No summary spooled for meeting " + meetingId));
+        Summary summary = processing.saveSummary(meetingId, result);
+        Files.deleteIfExists(json);
+        forward(meetingId, PipelineStage.NOTIFY, String.valueOf(summary.getSummaryId()));
+    }
+
+    private void forward(Integer meetingId, PipelineStage stage, String ref) {
+        publisher.publishStage(new StageMessage(meetingId, stage, ref));
+    }
+
+    private void deleteSpooled(Integer meetingId) {
+        for (String name : new String[]{"meeting-" + meetingId + ".flac", "meeting-" + meetingId + "-summary.json"}) {
+            try {
+                Files.deleteIfExists(spoolDir.resolve(name));
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
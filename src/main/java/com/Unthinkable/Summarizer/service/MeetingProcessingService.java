@@ -2,29 +2,52 @@ package com.Unthinkable.Summarizer.service;
 
 import com.Unthinkable.Summarizer.model.ActionItem;
 import com.Unthinkable.Summarizer.model.Meeting;
+import com.Unthinkable.Summarizer.model.MeetingCheckpoint;
 import com.Unthinkable.Summarizer.model.Summary;
 import com.Unthinkable.Summarizer.model.Transcript;
+import com.Unthinkable.Summarizer.model.User;
 import com.Unthinkable.Summarizer.repository.ActionItemRepository;
 import com.Unthinkable.Summarizer.repository.MeetingRepository;
 import com.Unthinkable.Summarizer.repository.SummaryRepository;
 import com.Unthinkable.Summarizer.repository.TranscriptRepository;
 import com.Unthinkable.Summarizer.repository.UserRepository;
-import com.Unthinkable.Summarizer.service.asr.AsrService;
+import com.Unthinkable.Summarizer.service.asr.AsrSubmission;
+import com.Unthinkable.Summarizer.service.asr.LroScheduler;
+import com.Unthinkable.Summarizer.service.asr.TranscriptCache;
+import com.Unthinkable.Summarizer.service.asr.TranscriptionCompletedEvent;
+import com.Unthinkable.Summarizer.service.asr.TranscriptionFailedEvent;
 import com.Unthinkable.Summarizer.service.llm.LlmService;
 import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.llm.TranscriptCompactor;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import com.Unthinkable.Summarizer.service.queue.MeetingJobMessage;
+import com.Unthinkable.Summarizer.service.queue.MeetingJobPublisher;
+import com.Unthinkable.Summarizer.service.queue.PermanentJobException;
+import com.Unthinkable.Summarizer.service.queue.PipelineStage;
+import com.Unthinkable.Summarizer.service.queue.StageMessage;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class MeetingProcessingService {
 
+    private static final Logger log = LoggerFactory.getLogger(MeetingProcessingService.class);
+
     private final StorageService storageService;
-    private final AsrService asrService;
+    private final TranscriptCache transcriptCache;
     private final LlmService llmService;
+    private final TranscriptCompactor transcriptCompactor;
     private final MeetingRepository meetingRepository;
     private final TranscriptRepository transcriptRepository;
     private final SummaryRepository summaryRepository;
@@ -32,25 +55,36 @@ public class MeetingProcessingService {
     private final UserRepository userRepository;
     private final MailService mailService;
     private final MeetingTxService meetingTxService;
+    private final LroScheduler lroScheduler;
+    private final MeetingJobPublisher meetingJobPublisher;
+    private final MeetingCheckpoints checkpoints;
+    private final WorkerResourceGuard resources;
+
+    @Value("${app.llm.stream.partial-interval-ms:1000}")
+    private long partialSummaryIntervalMs;
+
+    @Value("${app.pipeline.staged:false}")
+    private boolean stagedPipeline;
 
     // Removed @Transactional so failures don't roll back meeting row creation
     public ProcessResult processUpload(Integer userId, String title, MultipartFile audioFile) throws Exception {
         Meeting meeting = meetingTxService.createProcessingMeeting(userId, title);
         try {
             // Store audio
-            Path saved = storageService.saveAudio(userId, audioFile);
-            meeting.setAudioFilePath(saved.toString());
+            StorageService.StoredAudio saved = storageService.saveAudio(userId, audioFile);
+            meeting.setAudioFilePath(saved.path().toString());
+            meeting.setAudioSha256(saved.sha256());
             meetingRepository.save(meeting);
 
-            // Transcribe
-            String transcriptText = asrService.transcribe(saved);
+            // Transcribe (or reuse the transcript of identical audio)
+            String transcriptText = transcriptCache.transcribe(saved.sha256(), saved.path());
             Transcript transcript = new Transcript();
             transcript.setMeetingId(meeting.getMeetingId());
             transcript.setTranscriptText(transcriptText);
             transcriptRepository.save(transcript);
 
-            // Summarize
-            SummaryResult summaryResult = llmService.summarize(transcriptText);
+            // Summarize (the stored transcript stays raw; the prompt gets the compacted one)
+            SummaryResult summaryResult = llmService.summarize(compactForPrompt(meeting.getMeetingId(), transcriptText));
             Summary summary = new Summary();
             summary.setMeetingId(meeting.getMeetingId());
             summary.setSummaryText(summaryResult.getSummaryText());
@@ -86,18 +120,26 @@ public class MeetingProcessingService {
     // Avoid holding a DB transaction across file IO
     public ProcessResult createUploadJob(Integer userId, String title, MultipartFile audioFile) throws Exception {
         // 1) Save file to disk first (can take long; no DB connection held)
-        Path saved = storageService.saveAudio(userId, audioFile);
-        // 2) Create meeting quickly in its own short transaction and persist path
-        Meeting meeting = meetingTxService.createProcessingMeeting(userId, title);
-        meeting.setAudioFilePath(saved.toString());
-        meetingRepository.save(meeting);
+        StorageService.StoredAudio saved = storageService.saveAudio(userId, audioFile);
+        // 2) Create meeting and its queued job in one short transaction
+        return queueUploadJob(userId, title, saved);
+    }
+
+    // The job is written to the outbox with the meeting row, so it cannot be lost to a broker outage
+    public ProcessResult queueUploadJob(Integer userId, String title, StorageService.StoredAudio saved) {
+        Meeting meeting = meetingTxService.createQueuedMeeting(userId, title, saved);
         return new ProcessResult(meeting.getMeetingId());
     }
 
+    public void queueReprocess(Integer meetingId) {
+        meetingTxService.queueProcessing(meetingId);
+    }
+
     // Avoid holding a DB transaction across file IO
-    public ProcessResult createUploadJobFromPath(Integer userId, String title, Path savedAudioPath) {
+    public ProcessResult createUploadJobFromPath(Integer userId, String title, StorageService.StoredAudio saved) {
         Meeting meeting = meetingTxService.createProcessingMeeting(userId, title);
-        meeting.setAudioFilePath(savedAudioPath.toString());
+        meeting.setAudioFilePath(saved.path().toString());
+        meeting.setAudioSha256(saved.sha256());
         meetingRepository.save(meeting);
         return new ProcessResult(meeting.getMeetingId());
     }
@@ -105,61 +147,338 @@ public class MeetingProcessingService {
     // Do not annotate the whole method as transactional to prevent long-running external calls
     // from keeping a DB connection checked out. Repository operations are transactional by default.
     public ProcessResult reprocessMeeting(Integer meetingId) throws Exception {
+        Meeting meeting = beginProcessing(meetingId);
+        try {
+            Optional<Transcript> transcribed = checkpointedTranscript(meetingId);
+            if (transcribed.isPresent()) {
+                completeFromTranscript(meetingId, transcribed.get().getTranscriptText());
+                return new ProcessResult(meetingId);
+            }
+            Path audioPath = Path.of(meeting.getAudioFilePath());
+            String transcriptText = transcriptCache.transcribe(meeting.getAudioSha256(), audioPath);
+            completeWithTranscript(meeting, transcriptText);
+            return new ProcessResult(meetingId);
+        } catch (Exception ex) {
+            markFailed(meetingId);
+            throw ex;
+        }
+    }
+
+    // Queue entry point: a long-running recognition is handed to LroScheduler instead of parking
+    // this thread; the pipeline continues in onTranscriptionCompleted once it finishes. Failures are
+    // left to the caller, which decides between a delayed retry and FAILED.
+    public ProcessResult startProcessing(Integer meetingId, int attempt) throws Exception {
+        Meeting meeting = beginProcessing(meetingId);
+        Optional<Transcript> transcribed = checkpointedTranscript(meetingId);
+        if (transcribed.isPresent()) {
+            completeFromTranscript(meetingId, transcribed.get().getTranscriptText());
+            return new ProcessResult(meetingId);
+        }
+        Path audioPath = Path.of(meeting.getAudioFilePath());
+        AsrSubmission submission = transcriptCache.submit(meeting.getAudioSha256(), audioPath);
+        if (submission.isPending()) {
+            lroScheduler.track(meetingId, meeting.getAudioSha256(), submission.pending(), attempt);
+        } else {
+            completeWithTranscript(meeting, submission.transcript());
+        }
+        return new ProcessResult(meetingId);
+    }
+
+    // Explicit reprocess request. A completed meeting keeps its transcript and gets a fresh summary; a
+    // failed one resumes after its last checkpoint. force also drops the transcript and its cache
+    // entry, so the audio goes through ASR again.
+    public void prepareReprocess(Integer meetingId, boolean force) {
         Meeting meeting = meetingRepository.findById(meetingId)
                 .orElseThrow(() -> new IllegalArgumentException("Meeting not found"));
-        if (meeting.getAudioFilePath() == null || meeting.getAudioFilePath().isBlank()) {
-            throw new IllegalStateException("No audio file path stored for this meeting");
+        if (force) {
+            checkpoints.rewind(meetingId, null);
+            transcriptCache.evict(meeting.getAudioSha256());
+        } else if (meeting.getStatus() == Meeting.MeetingStatus.COMPLETED) {
+            checkpoints.rewind(meetingId, MeetingCheckpoint.Stage.TRANSCRIBED);
         }
-        // mark as processing quickly
-        meeting.setStatus(Meeting.MeetingStatus.PROCESSING);
-        meetingRepository.save(meeting);
+    }
+
+    // The stored transcript, if this meeting got past ASR in an earlier attempt
+    public Optional<Transcript> checkpointedTranscript(Integer meetingId) throws Exception {
+        return resources.db(() -> {
+            if (!checkpoints.reached(meetingId, MeetingCheckpoint.Stage.TRANSCRIBED)) return Optional.empty();
+            Optional<Transcript> transcript = transcriptRepository.findByMeetingId(meetingId);
+            transcript.ifPresent(t -> log.info("Meeting {}: resuming after checkpoint {}, skipping ASR",
+                    meetingId, checkpoints.completed(meetingId).orElse(null)));
+            return transcript;
+        });
+    }
+
+    // The LLM result, if this meeting got past SUMMARIZED in an earlier attempt
+    public Optional<SummaryResult> checkpointedSummary(Integer meetingId) throws Exception {
+        return resources.db(() -> checkpoints.savedSummary(meetingId));
+    }
+
+    // The saved summary, if this meeting got past PERSISTED in an earlier attempt
+    public Optional<Summary> persistedSummary(Integer meetingId) throws Exception {
+        return resources.db(() -> {
+            if (!checkpoints.reached(meetingId, MeetingCheckpoint.Stage.PERSISTED)) return Optional.empty();
+            return summaryRepository.findByMeetingId(meetingId);
+        });
+    }
+
+    // Runs on the LRO scheduler before the operation is forgotten, so it only makes the result durable:
+    // the transcript with its TRANSCRIBED checkpoint, and an outbox job that resumes from that checkpoint
+    // (summary, or the SUMMARIZE stage) with the usual retries. If this throws, or the process dies
+    // first, the operation is still tracked and handed over again on the next poll.
+    @EventListener
+    public void onTranscriptionCompleted(TranscriptionCompletedEvent event) throws Exception {
+        Integer meetingId = event.meetingId();
+        if (resources.db(() -> meetingRepository.findById(meetingId)).isEmpty()) {
+            log.warn("Transcription finished for unknown meeting {}", meetingId);
+            return;
+        }
+        saveTranscript(meetingId, event.transcriptText());
+        resources.db(() -> {
+            meetingTxService.queueProcessing(meetingId);
+            return null;
+        });
+        log.info("Meeting {}: long-running transcription saved, job queued to finish it", meetingId);
+    }
+
+    // Goes through the same delay tiers as any failed job: the retry recognizes the audio again
+    @EventListener
+    public void onTranscriptionFailed(TranscriptionFailedEvent event) {
+        retryOrFail(event.meetingId(), event.attempt(), new IllegalStateException(event.reason()));
+    }
+
+    private void retryOrFail(Integer meetingId, int attempt, Exception error) {
+        boolean retrying = false;
         try {
-            Path audioPath = Path.of(meeting.getAudioFilePath());
-            String transcriptText = asrService.transcribe(audioPath);
+            retrying = stagedPipeline
+                    ? meetingJobPublisher.retryOrPark(new StageMessage(meetingId, PipelineStage.TRANSCRIBE, null), attempt, error, false)
+                    : meetingJobPublisher.retryOrPark(new MeetingJobMessage(meetingId), attempt, error, false);
+        } catch (Exception e) {
+            log.error("Meeting {}: could not queue a retry: {}", meetingId, e.toString());
+        }
+        if (!retrying) {
+            markFailed(meetingId);
+        }
+    }
 
+    public Meeting beginProcessing(Integer meetingId) throws Exception {
+        Meeting found = resources.db(() -> meetingRepository.findById(meetingId))
+                .orElseThrow(() -> new IllegalArgumentException("Meeting not found"));
+        if (found.getAudioFilePath() == null || found.getAudioFilePath().isBlank()) {
+            throw new PermanentJobException("No audio file path stored for this meeting");
+        }
+        if (!Files.exists(Path.of(found.getAudioFilePath()))) {
+            throw new PermanentJobException("Audio file for meeting " + meetingId + " is missing: " + found.getAudioFilePath());
+        }
+        // mark as processing quickly
+        found.setStatus(Meeting.MeetingStatus.PROCESSING);
+        Meeting meeting = resources.db(() -> meetingRepository.save(found));
+        if (meeting.getAudioSha256() == null) {
+            // Uploaded before hashing was added; hash once so later runs hit the cache
+            try {
+                meeting.setAudioSha256(storageService.sha256(Path.of(meeting.getAudioFilePath())));
+                Meeting hashed = meeting;
+                meeting = resources.db(() -> meetingRepository.save(hashed));
+            } catch (Exception ex) {
+                markFailed(meetingId);
+                throw ex;
+            }
+        }
+        return meeting;
+    }
+
+    private void completeWithTranscript(Meeting meeting, String transcriptText) throws Exception {
+        Integer meetingId = meeting.getMeetingId();
+        saveTranscript(meetingId, transcriptText);
+        completeFromTranscript(meetingId, transcriptText);
+    }
+
+    private void completeFromTranscript(Integer meetingId, String transcriptText) throws Exception {
+        saveSummary(meetingId, summarizeTranscript(meetingId, transcriptText));
+        notifyOwner(meetingId);
+    }
+
+    // The steps below are also run one at a time by the staged pipeline (MeetingPipeline); each one
+    // records its checkpoint when done. Every DB touch on the job path, reads included, takes a DB slot
+    // (never while holding one) so a worker running dozens of jobs cannot drain the connection pool
+    // web requests share.
+
+    public Transcript saveTranscript(Integer meetingId, String transcriptText) throws Exception {
+        return resources.db(() -> {
             Transcript transcript = transcriptRepository.findByMeetingId(meetingId).orElseGet(Transcript::new);
             transcript.setMeetingId(meetingId);
             transcript.setTranscriptText(transcriptText);
-            transcriptRepository.save(transcript);
-
-            SummaryResult summaryResult = llmService.summarize(transcriptText);
-            Summary summary = summaryRepository.findByMeetingId(meetingId).orElseGet(Summary::new);
-            summary.setMeetingId(meetingId);
-            summary.setSummaryText(summaryResult.getSummaryText());
-            summary.setKeyDecisions(summaryResult.getKeyDecisions());
-            summaryRepository.save(summary);
+            transcript = transcriptRepository.save(transcript);
+            checkpoints.record(meetingId, MeetingCheckpoint.Stage.TRANSCRIBED);
+            return transcript;
+        });
+    }
 
-            var existing = actionItemRepository.findByMeetingIdOrderByCreatedAtAsc(meetingId);
-            actionItemRepository.deleteAll(existing);
-            for (SummaryResult.ActionItemSuggestion s : summaryResult.getActionItems()) {
-                ActionItem ai = new ActionItem();
-                ai.setMeetingId(meetingId);
-                ai.setDescription(s.getDescription());
-                ai.setAssignedTo(s.getAssignedTo());
-                ai.setDueDate(s.getDueDate());
-                actionItemRepository.save(ai);
+    // Reuses the result of an earlier attempt that failed after the LLM call
+    public SummaryResult summarizeTranscript(Integer meetingId, String transcriptText) throws Exception {
+        Optional<SummaryResult> saved = checkpointedSummary(meetingId);
+        if (saved.isPresent()) {
+            log.info("Meeting {}: reusing checkpointed summary", meetingId);
+            return saved.get();
+        }
+        PartialSummaryWriter partials = new PartialSummaryWriter(meetingId);
+        SummaryResult result;
+        try {
+            result = llmService.summarize(compactForPrompt(meetingId, transcriptText), partials);
+        } catch (Exception e) {
+            try {
+                partials.finish(null);
+            } catch (Exception cleanup) {
+                e.addSuppressed(cleanup);
             }
+            throw e;
+        }
+        partials.finish(result);
+        resources.db(() -> {
+            checkpoints.recordSummary(meetingId, result);
+            return null;
+        });
+        return result;
+    }
+
+    // Summary, action items and COMPLETED status
+    public Summary saveSummary(Integer meetingId, SummaryResult summaryResult) throws Exception {
+        return resources.db(() -> writeSummary(meetingId, summaryResult));
+    }
+
+    private Summary writeSummary(Integer meetingId, SummaryResult summaryResult) {
+        Summary summary = summaryRepository.findByMeetingId(meetingId).orElseGet(Summary::new);
+        summary.setMeetingId(meetingId);
+        summary.setSummaryText(summaryResult.getSummaryText());
+        summary.setKeyDecisions(summaryResult.getKeyDecisions());
+        summary = summaryRepository.save(summary);
+
+        var existing = actionItemRepository.findByMeetingIdOrderByCreatedAtAsc(meetingId);
+        actionItemRepository.deleteAll(existing);
+        for (SummaryResult.ActionItemSuggestion s : summaryResult.getActionItems()) {
+            ActionItem ai = new ActionItem();
+            ai.setMeetingId(meetingId);
+            ai.setDescription(s.getDescription());
+            ai.setAssignedTo(s.getAssignedTo());
+            ai.setDueDate(s.getDueDate());
+            actionItemRepository.save(ai);
+        }
 
+        meetingRepository.findById(meetingId).ifPresent(meeting -> {
             meeting.setStatus(Meeting.MeetingStatus.COMPLETED);
             meetingRepository.save(meeting);
+        });
+        checkpoints.record(meetingId, MeetingCheckpoint.Stage.PERSISTED);
+        return summary;
+    }
 
-            try {
-                var user = userRepository.findById(meeting.getUserId()).orElse(null);
-                mailService.sendMeetingSummary(user, meeting, transcript, summary);
-            } catch (Exception ignore) {}
+    // Best-effort summary email, sent once per run
+    public void notifyOwner(Integer meetingId) throws Exception {
+        if (resources.db(() -> checkpoints.reached(meetingId, MeetingCheckpoint.Stage.NOTIFIED))) return;
+        try {
+            // The slot is not held while the mail goes out
+            MeetingMail mail = resources.db(() -> {
+                Meeting meeting = meetingRepository.findById(meetingId).orElse(null);
+                if (meeting == null) return null;
+                return new MeetingMail(userRepository.findById(meeting.getUserId()).orElse(null), meeting,
+                        transcriptRepository.findByMeetingId(meetingId).orElse(null),
+                        summaryRepository.findByMeetingId(meetingId).orElse(null));
+            });
+            if (mail == null) return;
+            mailService.sendMeetingSummary(mail.user(), mail.meeting(), mail.transcript(), mail.summary());
+        } catch (Exception ignore) {}
+        resources.db(() -> {
+            checkpoints.record(meetingId, MeetingCheckpoint.Stage.NOTIFIED);
+            return null;
+        });
+    }
 
-            return new ProcessResult(meetingId);
-        } catch (Exception ex) {
-            markFailed(meetingId);
-            throw ex;
+    private String compactForPrompt(Integer meetingId, String transcriptText) {
+        TranscriptCompactor.Result compacted = transcriptCompactor.compact(transcriptText);
+        log.info("Meeting {} transcript compacted from ~{} to ~{} tokens", meetingId, compacted.tokensBefore(), compacted.tokensAfter());
+        return compacted.text();
+    }
+
+    // Saves the summary as it streams in (at most once per interval) so the meeting shows text while
+    // the LLM is still writing. Only a meeting without a summary gets a draft: a reprocessed one keeps
+    // its previous summary until saveSummary replaces it. A draft never outlives a failed LLM call.
+    private final class PartialSummaryWriter implements Consumer<SummaryResult> {
+        private final Integer meetingId;
+        private long lastWrite;
+        private Integer draftId;
+        private boolean skip;
+        private boolean finished;
+
+        PartialSummaryWriter(Integer meetingId) {
+            this.meetingId = meetingId;
+        }
+
+        @Override
+        public synchronized void accept(SummaryResult partial) {
+            long now = System.currentTimeMillis();
+            if (finished || skip || partial.getSummaryText() == null || partial.getSummaryText().isBlank()
+                    || now - lastWrite < partialSummaryIntervalMs) {
+                return;
+            }
+            lastWrite = now;
+            // A busy pool skips this snapshot instead of holding up the stream
+            Optional<WorkerResourceGuard.Slot> slot = resources.tryAcquire(WorkerResourceGuard.Resource.DB);
+            if (slot.isEmpty()) return;
+            try (WorkerResourceGuard.Slot ignored = slot.get()) {
+                Summary summary;
+                if (draftId == null) {
+                    if (summaryRepository.findByMeetingId(meetingId).isPresent()) {
+                        skip = true;
+                        return;
+                    }
+                    summary = new Summary();
+                    summary.setMeetingId(meetingId);
+                } else {
+                    summary = summaryRepository.findById(draftId).orElse(null);
+                    if (summary == null) {
+                        skip = true;
+                        return;
+                    }
+                }
+                summary.setSummaryText(partial.getSummaryText());
+                summary.setKeyDecisions(partial.getKeyDecisions());
+                draftId = summaryRepository.save(summary).getSummaryId();
+            } catch (Exception e) {
+                log.debug("Could not save partial summary for meeting {}: {}", meetingId, e.toString());
+            }
+        }
+
+        // No partials after this (a hedged request may still be streaming). The draft gets the final
+        // text, or is deleted when there is none, so no truncated summary is left behind.
+        synchronized void finish(SummaryResult result) throws Exception {
+            finished = true;
+            if (draftId == null) return;
+            Integer id = draftId;
+            resources.db(() -> {
+                if (result == null) {
+                    summaryRepository.deleteById(id);
+                } else {
+                    summaryRepository.findById(id).ifPresent(summary -> {
+                        summary.setSummaryText(result.getSummaryText());
+                        summary.setKeyDecisions(result.getKeyDecisions());
+                        summaryRepository.save(summary);
+                    });
+                }
+                return null;
+            });
         }
     }
 
     public void markFailed(Integer meetingId) {
         try {
-            meetingTxService.markFailed(meetingId);
+            resources.db(() -> {
+                meetingTxService.markFailed(meetingId);
+                return null;
+            });
         } catch (Exception ignore) {}
     }
 
     public record ProcessResult(Integer meetingId) {}
+
+    private record MeetingMail(User user, Meeting meeting, Transcript transcript, Summary summary) {}
 }
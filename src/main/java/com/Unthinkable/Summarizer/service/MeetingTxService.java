@@ -1,7 +1,9 @@
 package com.Unthinkable.Summarizer.service;
 
 import com.Unthinkable.Summarizer.model.Meeting;
+import com.Unthinkable.Summarizer.model.OutboxEvent;
 import com.Unthinkable.Summarizer.repository.MeetingRepository;
+import com.Unthinkable.Summarizer.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -12,14 +14,39 @@ import org.springframework.transaction.annotation.Transactional;
 public class MeetingTxService {
 
     private final MeetingRepository meetingRepository;
+    private final OutboxEventRepository outboxEventRepository;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Meeting createProcessingMeeting(Integer userId, String title) {
+        return meetingRepository.save(newProcessingMeeting(userId, title));
+    }
+
+    // Meeting row and its job commit together; OutboxRelay publishes the job afterwards
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Meeting createQueuedMeeting(Integer userId, String title, StorageService.StoredAudio audio) {
+        Meeting meeting = newProcessingMeeting(userId, title);
+        meeting.setAudioFilePath(audio.path().toString());
+        meeting.setAudioSha256(audio.sha256());
+        meeting = meetingRepository.save(meeting);
+        outboxEventRepository.save(OutboxEvent.meetingJob(meeting.getMeetingId()));
+        return meeting;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void queueProcessing(Integer meetingId) {
+        Meeting meeting = meetingRepository.findById(meetingId)
+                .orElseThrow(() -> new IllegalArgumentException("Meeting not found"));
+        meeting.setStatus(Meeting.MeetingStatus.PROCESSING);
+        meetingRepository.save(meeting);
+        outboxEventRepository.save(OutboxEvent.meetingJob(meetingId));
+    }
+
+    private static Meeting newProcessingMeeting(Integer userId, String title) {
         Meeting meeting = new Meeting();
         meeting.setUserId(userId);
         meeting.setTitle(title == null || title.isBlank() ? "Meeting" : title.trim());
         meeting.setStatus(Meeting.MeetingStatus.PROCESSING);
-        return meetingRepository.save(meeting);
+        return meeting;
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
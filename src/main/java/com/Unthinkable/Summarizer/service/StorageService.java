@@ -7,11 +7,16 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
@@ -24,39 +29,59 @@ public class StorageService {
         Files.createDirectories(this.baseDir);
     }
 
-    public Path saveAudio(Integer userId, MultipartFile file) throws IOException {
-        String original = StringUtils.cleanPath(file.getOriginalFilename() == null ? "audio" : file.getOriginalFilename());
-        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-        String ext = original.contains(".") ? original.substring(original.lastIndexOf('.')) : ".wav";
-        String name = ts + "-" + UUID.randomUUID() + ext;
-        Path userDir = baseDir.resolve("user-" + userId);
-        Files.createDirectories(userDir);
-        Path out = userDir.resolve(name);
-        Files.copy(file.getInputStream(), out, StandardCopyOption.REPLACE_EXISTING);
-        return out;
+    // Where the audio landed plus its SHA-256 (lowercase hex), computed while the bytes were written
+    public record StoredAudio(Path path, String sha256, long sizeBytes) {}
+
+    public StoredAudio saveAudio(Integer userId, MultipartFile file) throws IOException {
+        Path out = newAudioPath(userId, file.getOriginalFilename() == null ? "audio" : file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            return copyHashing(in, out);
+        }
     }
 
-    public Path saveAudioFromBytes(Integer userId, byte[] data, String originalFilename) throws IOException {
-        String original = StringUtils.cleanPath(originalFilename == null ? "audio.wav" : originalFilename);
-        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-        String ext = original.contains(".") ? original.substring(original.lastIndexOf('.')) : ".wav";
-        String name = ts + "-" + UUID.randomUUID() + ext;
-        Path userDir = baseDir.resolve("user-" + userId);
-        Files.createDirectories(userDir);
-        Path out = userDir.resolve(name);
+    public StoredAudio saveAudioFromBytes(Integer userId, byte[] data, String originalFilename) throws IOException {
+        Path out = newAudioPath(userId, originalFilename == null ? "audio.wav" : originalFilename);
         Files.write(out, data);
-        return out;
+        MessageDigest digest = sha256Digest();
+        digest.update(data);
+        return new StoredAudio(out, HexFormat.of().formatHex(digest.digest()), data.length);
+    }
+
+    public StoredAudio saveAudioFromStream(Integer userId, InputStream inputStream, String originalFilename) throws IOException {
+        Path out = newAudioPath(userId, originalFilename == null ? "audio.wav" : originalFilename);
+        return copyHashing(inputStream, out);
+    }
+
+    // For audio stored before hashes were recorded
+    public String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
-    public Path saveAudioFromStream(Integer userId, InputStream inputStream, String originalFilename) throws IOException {
-        String original = StringUtils.cleanPath(originalFilename == null ? "audio.wav" : originalFilename);
+    private Path newAudioPath(Integer userId, String originalFilename) throws IOException {
+        String original = StringUtils.cleanPath(originalFilename);
         String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
         String ext = original.contains(".") ? original.substring(original.lastIndexOf('.')) : ".wav";
         String name = ts + "-" + UUID.randomUUID() + ext;
         Path userDir = baseDir.resolve("user-" + userId);
         Files.createDirectories(userDir);
-        Path out = userDir.resolve(name);
-        Files.copy(inputStream, out, StandardCopyOption.REPLACE_EXISTING);
-        return out;
+        return userDir.resolve(name);
+    }
+
+    private StoredAudio copyHashing(InputStream in, Path out) throws IOException {
+        MessageDigest digest = sha256Digest();
+        long size = Files.copy(new DigestInputStream(in, digest), out, StandardCopyOption.REPLACE_EXISTING);
+        return new StoredAudio(out, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
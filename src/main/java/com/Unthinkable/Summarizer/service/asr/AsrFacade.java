@@ -17,4 +17,19 @@ public class AsrFacade implements AsrService {
     public String transcribe(Path audioFile) throws Exception {
         return gcpAsrService.transcribe(audioFile);
     }
+
+    @Override
+    public AsrSubmission submit(Path audioFile) throws Exception {
+        return gcpAsrService.submit(audioFile);
+    }
+
+    @Override
+    public String providerName() {
+        return gcpAsrService.providerName();
+    }
+
+    @Override
+    public String languageCode() {
+        return gcpAsrService.languageCode();
+    }
 }
@@ -4,5 +4,14 @@ import java.nio.file.Path;
 
 public interface AsrService {
     String transcribe(Path audioFile) throws Exception;
-}
 
+    // Like transcribe, but long audio may come back as a pending operation instead of blocking
+    default AsrSubmission submit(Path audioFile) throws Exception {
+        return AsrSubmission.completed(transcribe(audioFile));
+    }
+
+    // Together with the audio hash these identify a transcript in the transcript cache
+    String providerName();
+
+    String languageCode();
+}
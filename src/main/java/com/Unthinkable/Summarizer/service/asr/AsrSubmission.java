@@ -0,0 +1,18 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+// Outcome of starting a transcription: either the transcript itself, or a long-running
+// operation that is still in progress and has to be polled (see LroScheduler)
+public record AsrSubmission(String transcript, GcpAsrService.LongRunningHandle pending) {
+
+    public static AsrSubmission completed(String transcript) {
+        return new AsrSubmission(transcript, null);
+    }
+
+    public static AsrSubmission pending(GcpAsrService.LongRunningHandle handle) {
+        return new AsrSubmission(null, handle);
+    }
+
+    public boolean isPending() {
+        return pending != null;
+    }
+}
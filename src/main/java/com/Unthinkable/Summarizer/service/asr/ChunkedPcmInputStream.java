@@ -0,0 +1,47 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.List;
+
+// Re-joins framed chunks into one continuous PCM stream (chunks already read first, then the
+// rest of the chunker), so silence the chunker dropped is never uploaded either.
+public class ChunkedPcmInputStream extends InputStream {
+
+    private final PcmChunker chunker;
+    private final ArrayDeque<PcmChunk> pending;
+    private byte[] current = new byte[0];
+    private int pos;
+
+    public ChunkedPcmInputStream(PcmChunker chunker, List<PcmChunk> alreadyRead) {
+        this.chunker = chunker;
+        this.pending = new ArrayDeque<>(alreadyRead);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!advance()) return -1;
+        return current[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!advance()) return -1;
+        int n = Math.min(len, current.length - pos);
+        System.arraycopy(current, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    private boolean advance() throws IOException {
+        while (pos == current.length) {
+            PcmChunk next = pending.isEmpty() ? chunker.next() : pending.poll();
+            if (next == null) return false;
+            current = next.data();
+            pos = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Copies everything read from the upload into a side branch (ffmpeg's stdin) without ever slowing the
+// upload down: copies go into a buffer of at most maxBufferedBytes, and pump() writes them to the
+// branch on its own thread. If the branch falls that far behind, or fails, it is detached: the buffer
+// is dropped, the branch gets end of input, and reads carry on at disk speed. Whatever the branch
+// produced after a detach is incomplete and must be discarded.
+public final class DetachingTeeInputStream extends FilterInputStream {
+
+    private static final byte[] END = new byte[0];
+
+    private final OutputStream branch;
+    private final long maxBufferedBytes;
+    private final LinkedBlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private volatile boolean detached;
+    private volatile boolean ended;
+
+    public DetachingTeeInputStream(InputStream in, OutputStream branch, long maxBufferedBytes) {
+        super(in);
+        this.branch = branch;
+        this.maxBufferedBytes = Math.max(1, maxBufferedBytes);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) copy(new byte[]{(byte) b}, 0, 1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) copy(b, off, n);
+        return n;
+    }
+
+    private void copy(byte[] b, int off, int len) {
+        if (detached || ended) return;
+        if (buffered.addAndGet(len) > maxBufferedBytes) {
+            detach();
+            return;
+        }
+        queue.add(Arrays.copyOfRange(b, off, off + len));
+    }
+
+    // Runs on its own thread until the branch has everything (or is detached), then closes it
+    public void pump() {
+        try {
+            while (!detached) {
+                byte[] next = queue.take();
+                if (next == END) break;
+                buffered.addAndGet(-next.length);
+                branch.write(next);
+            }
+        } catch (IOException e) {
+            detached = true;
+        } catch (InterruptedException e) {
+            detached = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            queue.clear();
+            try {
+                branch.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    // The upload has been read to the end (or abandoned): the branch gets end of input once it catches up
+    public void endBranch() {
+        if (ended) return;
+        ended = true;
+        queue.add(END);
+    }
+
+    public void detach() {
+        detached = true;
+        queue.clear();
+        queue.add(END);
+    }
+
+    public boolean detached() {
+        return detached;
+    }
+}
@@ -0,0 +1,234 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Decodes any input ffmpeg understands into 16 kHz mono signed 16-bit little-endian PCM on
+// ffmpeg's stdout, so callers can frame and recognize audio without intermediate files.
+@Component
+@RequiredArgsConstructor
+public class FfmpegPcmSource {
+
+    private static final Logger log = LoggerFactory.getLogger(FfmpegPcmSource.class);
+
+    public static final int SAMPLE_RATE = 16000;
+    public static final int BYTES_PER_SAMPLE = 2;
+    public static final int BYTES_PER_SECOND = SAMPLE_RATE * BYTES_PER_SAMPLE;
+
+    private static final int STDERR_TAIL_BYTES = 2048;
+
+    private final WorkerResourceGuard resources;
+
+    @Value("${app.ffmpeg.path:ffmpeg}")
+    private String ffmpegPath;
+
+    // Every ffmpeg process holds an ffmpeg slot until it is closed. A PCM stream is usually paced by
+    // recognition, but a fast consumer (or a chunk backlog) lets it decode flat out on a core.
+    public PcmStream open(Path input) throws IOException, InterruptedException {
+        return start(input.toAbsolutePath().toString(), resources.acquire(WorkerResourceGuard.Resource.FFMPEG));
+    }
+
+    // Reads the encoded input from the returned stream's stdin (used while an upload is still arriving).
+    // Called on a request thread, so it fails straight away rather than wait for an ffmpeg slot.
+    public PcmStream openPipe() throws IOException {
+        WorkerResourceGuard.Slot slot = resources.tryAcquire(WorkerResourceGuard.Resource.FFMPEG)
+                .orElseThrow(() -> new IllegalStateException("no ffmpeg slot free"));
+        return start("pipe:0", slot);
+    }
+
+    // Re-encodes the input to 16 kHz mono FLAC: everything recognition uses, at a fraction of the size
+    public void transcodeToFlac(Path input, Path output) throws IOException, InterruptedException {
+        try (WorkerResourceGuard.Slot ignored = resources.acquire(WorkerResourceGuard.Resource.FFMPEG)) {
+            runTranscode(input, output);
+        }
+    }
+
+    private void runTranscode(Path input, Path output) throws IOException, InterruptedException {
+        String ffmpegCmd = resolveFfmpegCmd();
+        Process p;
+        try {
+            p = new ProcessBuilder(ffmpegCmd,
+                    "-hide_banner",
+                    "-loglevel", "error",
+                    "-y",
+                    "-i", input.toAbsolutePath().toString(),
+                    "-vn",
+                    "-ac", "1",
+                    "-ar", String.valueOf(SAMPLE_RATE),
+                    "-c:a", "flac",
+                    output.toAbsolutePath().toString())
+                    .redirectErrorStream(true)
+                    .start();
+        } catch (IOException io) {
+            throw new IllegalStateException("Failed to start ffmpeg at '" + ffmpegCmd + "'. Ensure ffmpeg is installed or set app.ffmpeg.path / FFMPEG_PATH / APP_FFMPEG_PATH.", io);
+        }
+        p.getOutputStream().close();
+        byte[] out;
+        try (InputStream in = p.getInputStream()) {
+            out = in.readAllBytes();
+        }
+        int code = p.waitFor();
+        if (code != 0) {
+            Files.deleteIfExists(output);
+            String tail = new String(out, Math.max(0, out.length - STDERR_TAIL_BYTES), Math.min(out.length, STDERR_TAIL_BYTES), StandardCharsets.UTF_8);
+            throw new IllegalStateException("ffmpeg failed (" + code + ") transcoding " + input.getFileName() + ": " + tail.trim());
+        }
+    }
+
+    private PcmStream start(String input, WorkerResourceGuard.Slot slot) throws IOException {
+        String ffmpegCmd = resolveFfmpegCmd();
+        boolean fromStdin = "pipe:0".equals(input);
+        String[] cmd = new String[]{
+                ffmpegCmd,
+                "-hide_banner",
+                "-loglevel", "error",
+                "-i", input,
+                "-vn",
+                "-ac", "1",
+                "-ar", String.valueOf(SAMPLE_RATE),
+                "-f", "s16le",
+                "-acodec", "pcm_s16le",
+                "pipe:1"
+        };
+        Process p;
+        try {
+            p = new ProcessBuilder(cmd).start();
+        } catch (IOException io) {
+            slot.close();
+            throw new IllegalStateException("Failed to start ffmpeg at '" + ffmpegCmd + "'. Ensure ffmpeg is installed or set app.ffmpeg.path / FFMPEG_PATH / APP_FFMPEG_PATH.", io);
+        }
+        PcmStream stream = new PcmStream(p, ffmpegCmd, slot);
+        if (!fromStdin) {
+            try {
+                p.getOutputStream().close();
+            } catch (IOException e) {
+                stream.close();
+                throw e;
+            }
+        }
+        return stream;
+    }
+
+    public String resolveFfmpegCmd() {
+        try {
+            // If explicit path configured and exists, use it
+            if (ffmpegPath != null && !ffmpegPath.isBlank()) {
+                Path p = Path.of(ffmpegPath);
+                if (Files.exists(p)) return p.toString();
+            }
+            // Try env vars explicitly if different from property
+            String env1 = System.getenv("FFMPEG_PATH");
+            if (env1 != null && !env1.isBlank()) {
+                Path p = Path.of(env1);
+                if (Files.exists(p)) return p.toString();
+            }
+            String env2 = System.getenv("APP_FFMPEG_PATH");
+            if (env2 != null && !env2.isBlank()) {
+                Path p = Path.of(env2);
+                if (Files.exists(p)) return p.toString();
+            }
+            // Common Windows install locations
+            Path[] candidates = new Path[] {
+                    Path.of("C:/Program Files/ffmpeg/bin/ffmpeg.exe"),
+                    Path.of("C:/Program Files (x86)/ffmpeg/bin/ffmpeg.exe"),
+                    Path.of("C:/ffmpeg/bin/ffmpeg.exe")
+            };
+            for (Path c : candidates) {
+                try { if (Files.exists(c)) return c.toString(); } catch (Exception ignore) {}
+            }
+        } catch (Exception ignore) {}
+        // Fallback to PATH
+        return "ffmpeg";
+    }
+
+    public static final class PcmStream implements Closeable {
+        private final Process process;
+        private final String ffmpegCmd;
+        private final InputStream pcm;
+        private final byte[] stderrTail = new byte[STDERR_TAIL_BYTES];
+        private int stderrLen;
+        private final Thread stderrDrain;
+        private final WorkerResourceGuard.Slot slot;
+
+        private PcmStream(Process process, String ffmpegCmd, WorkerResourceGuard.Slot slot) {
+            this.process = process;
+            this.ffmpegCmd = ffmpegCmd;
+            this.slot = slot;
+            this.pcm = new BufferedInputStream(process.getInputStream(), 64 * 1024);
+            // ffmpeg blocks if stderr fills up; keep only the tail for error messages
+            this.stderrDrain = new Thread(this::drainStderr, "ffmpeg-stderr");
+            this.stderrDrain.setDaemon(true);
+            this.stderrDrain.start();
+        }
+
+        public InputStream pcm() {
+            return pcm;
+        }
+
+        public OutputStream stdin() {
+            return process.getOutputStream();
+        }
+
+        public void awaitSuccess() throws InterruptedException {
+            int code = process.waitFor();
+            stderrDrain.join(1000);
+            if (code != 0) {
+                throw new IllegalStateException("ffmpeg failed (" + code + ") decoding audio. Command='" + ffmpegCmd
+                        + "'. Ensure ffmpeg is installed or set app.ffmpeg.path/FFMPEG_PATH/APP_FFMPEG_PATH. " + stderrTail());
+            }
+        }
+
+        private void drainStderr() {
+            byte[] buf = new byte[1024];
+            try (InputStream err = process.getErrorStream()) {
+                int n;
+                while ((n = err.read(buf)) >= 0) {
+                    synchronized (stderrTail) {
+                        int keep = Math.min(stderrLen, STDERR_TAIL_BYTES - n);
+                        System.arraycopy(stderrTail, stderrLen - keep, stderrTail, 0, keep);
+                        System.arraycopy(buf, 0, stderrTail, keep, n);
+                        stderrLen = keep + n;
+                    }
+                }
+            } catch (IOException ignore) {
+            }
+        }
+
+        private String stderrTail() {
+            synchronized (stderrTail) {
+                return new String(stderrTail, 0, stderrLen, StandardCharsets.UTF_8).trim();
+            }
+        }
+
+        @Override
+        public void close() {
+            try { pcm.close(); } catch (IOException ignore) {}
+            try { process.getOutputStream().close(); } catch (IOException ignore) {}
+            if (process.isAlive()) {
+                process.destroy();
+                try {
+                    if (!process.waitFor(2, TimeUnit.SECONDS)) process.destroyForcibly();
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+                log.debug("ffmpeg stopped before end of stream");
+            }
+            slot.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Frames a PCM16 stream into back-to-back chunks of a fixed duration (the last one may be shorter)
+public class FixedDurationChunker implements PcmChunker {
+
+    private final InputStream pcm;
+    private final int chunkBytes;
+    private int index;
+    private long samples;
+
+    public FixedDurationChunker(InputStream pcm, int chunkSeconds) {
+        this.pcm = pcm;
+        this.chunkBytes = Math.max(1, chunkSeconds) * FfmpegPcmSource.BYTES_PER_SECOND;
+    }
+
+    @Override
+    public PcmChunk next() throws IOException {
+        byte[] data = pcm.readNBytes(chunkBytes);
+        // Drop a trailing odd byte so every chunk holds whole samples
+        int usable = data.length - (data.length % FfmpegPcmSource.BYTES_PER_SAMPLE);
+        if (usable <= 0) return null;
+        if (usable != data.length) data = Arrays.copyOf(data, usable);
+        PcmChunk chunk = new PcmChunk(index++, samples, data);
+        samples += usable / FfmpegPcmSource.BYTES_PER_SAMPLE;
+        return chunk;
+    }
+}
@@ -1,41 +1,43 @@
 package com.Unthinkable.Summarizer.service.asr;
 
-import com.google.api.gax.core.FixedCredentialsProvider;
+import com.Unthinkable.Summarizer.service.provider.ConcurrencyLimiters;
 import com.google.api.gax.longrunning.OperationFuture;
-import com.google.api.gax.longrunning.OperationTimedPollAlgorithm;
-import com.google.api.gax.retrying.RetrySettings;
-import com.google.auth.Credentials;
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.speech.v1.*;
 import com.google.cloud.storage.*;
-import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.annotation.PostConstruct;
-import org.threeten.bp.Duration;
 import com.google.longrunning.Operation;
 import com.google.longrunning.OperationsClient;
 
 @Service
+@RequiredArgsConstructor
 public class GcpAsrService implements AsrService {
 
     private static final Logger log = LoggerFactory.getLogger(GcpAsrService.class);
+    private static final String LIMITER = "gcp-speech";
+
+    private final ParallelChunkRecognizer chunkRecognizer;
+    private final GcpClientProvider gcpClients;
+    private final GcsStreamingUploader gcsUploader;
+    private final FfmpegPcmSource pcmSource;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrencyLimiters limiters;
 
     @Value("${app.gcp.credentials-path:}")
     private String credentialsPath;
@@ -46,16 +48,27 @@ public class GcpAsrService implements AsrService {
     @Value("${app.gcp.bucket:}")
     private String bucketName;
 
-    @Value("${app.ffmpeg.path:ffmpeg}")
-    private String ffmpegPath;
+    // Sync recognize accepts at most one minute of audio per request
+    @Value("${app.asr.chunk-seconds:55}")
+    private int chunkSeconds;
+
+    // Voice activity detection: cut chunks in pauses and skip silence instead of fixed-length cuts
+    @Value("${app.asr.vad.enabled:true}")
+    private boolean vadEnabled;
+
+    @Value("${app.asr.vad.min-chunk-seconds:20}")
+    private int vadMinChunkSeconds;
 
-    // ~8 MB threshold for switching to long-running with GCS
-    private static final long SYNC_MAX_BYTES = 8L * 1024L * 1024L;
+    @Value("${app.asr.vad.pause-ms:400}")
+    private int vadPauseMs;
+
+    @Value("${app.asr.vad.padding-ms:300}")
+    private int vadPaddingMs;
 
     @PostConstruct
     void validateConfig() {
         try {
-            Path resolved = tryResolveCredentialsPath();
+            Path resolved = gcpClients.tryResolveCredentialsPath();
             if (resolved != null && Files.exists(resolved)) {
                 log.info("GCP credentials path set: {} (exists)", resolved.toAbsolutePath());
             } else if (credentialsPath != null && !credentialsPath.isBlank()) {
@@ -65,205 +78,148 @@ public class GcpAsrService implements AsrService {
                 log.info("No explicit credentials file configured. Will attempt GOOGLE_APPLICATION_CREDENTIALS or ADC.");
             }
             if (bucketName == null || bucketName.isBlank()) {
-                log.warn("app.gcp.bucket is not set. Large files (> ~8MB) will fail long-running recognition.");
+                log.warn("app.gcp.bucket is not set. Audio longer than {}s will use chunked sync recognition.", chunkSeconds);
             } else {
                 log.info("Using GCS bucket: {}", bucketName);
             }
             // ffmpeg command resolution
-            String ffmpegCmd = resolveFfmpegCmd();
+            String ffmpegCmd = pcmSource.resolveFfmpegCmd();
             log.info("Using ffmpeg command: {}", ffmpegCmd);
         } catch (Exception e) {
             throw (e instanceof RuntimeException) ? (RuntimeException) e : new RuntimeException(e);
         }
     }
 
-    private String resolveFfmpegCmd() {
-        try {
-            // If explicit path configured and exists, use it
-            if (ffmpegPath != null && !ffmpegPath.isBlank()) {
-                Path p = Path.of(ffmpegPath);
-                if (Files.exists(p)) return p.toString();
-            }
-            // Try env vars explicitly if different from property
-            String env1 = System.getenv("FFMPEG_PATH");
-            if (env1 != null && !env1.isBlank()) {
-                Path p = Path.of(env1);
-                if (Files.exists(p)) return p.toString();
-            }
-            String env2 = System.getenv("APP_FFMPEG_PATH");
-            if (env2 != null && !env2.isBlank()) {
-                Path p = Path.of(env2);
-                if (Files.exists(p)) return p.toString();
-            }
-            // Common Windows install locations
-            Path[] candidates = new Path[] {
-                    Path.of("C:/Program Files/ffmpeg/bin/ffmpeg.exe"),
-                    Path.of("C:/Program Files (x86)/ffmpeg/bin/ffmpeg.exe"),
-                    Path.of("C:/ffmpeg/bin/ffmpeg.exe")
-            };
-            for (Path c : candidates) {
-                try { if (Files.exists(c)) return c.toString(); } catch (Exception ignore) {}
-            }
-        } catch (Exception ignore) {}
-        // Fallback to PATH
-        return "ffmpeg";
-    }
-
     @Override
     public String transcribe(Path audioFile) throws Exception {
-        Credentials creds = resolveCredentials();
-
-        SpeechSettings.Builder speechSettings = SpeechSettings.newBuilder();
-        if (creds != null) {
-            speechSettings.setCredentialsProvider(FixedCredentialsProvider.create(creds));
+        AsrSubmission submission = submit(audioFile);
+        if (!submission.isPending()) {
+            return submission.transcript();
         }
-        // Extend polling to handle long audios without cancellation (up to 1 hour)
-        RetrySettings lroRetry = RetrySettings.newBuilder()
-                .setInitialRetryDelay(Duration.ofSeconds(5))
-                .setRetryDelayMultiplier(1.5)
-                .setMaxRetryDelay(Duration.ofSeconds(45))
-                .setTotalTimeout(Duration.ofHours(1))
-                .build();
-        speechSettings
-                .longRunningRecognizeOperationSettings()
-                .setPollingAlgorithm(OperationTimedPollAlgorithm.create(lroRetry));
-
-        // Convert to 16kHz mono LINEAR16 WAV to improve recognition reliability
-        Path wav = convertToWav16kMono(audioFile);
-        try (SpeechClient speech = SpeechClient.create(speechSettings.build())) {
-            long size = Files.size(wav);
-            RecognitionConfig config = RecognitionConfig.newBuilder()
-                    .setLanguageCode(languageCode)
-                    .setEnableAutomaticPunctuation(true)
-                    .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
-                    .setSampleRateHertz(16000)
-                    .setAudioChannelCount(1)
-                    .build();
+        // Blocking callers wait here; the queue pipeline hands the operation to LroScheduler instead
+        LongRunningHandle handle = submission.pending();
+        try (GcpClientProvider.Lease gcp = gcpClients.lease()) {
+            LongRunningRecognizeResponse lrResp = gcp.speech().longRunningRecognizeOperationCallable()
+                    .resumeFutureCall(handle.operationName())
+                    .get();
+            return joinResults(lrResp.getResultsList());
+        } finally {
+            deleteFromGcs(handle.gcsUri());
+        }
+    }
 
-            if (size <= SYNC_MAX_BYTES) {
-                byte[] content = Files.readAllBytes(wav);
-                RecognitionAudio audio = RecognitionAudio.newBuilder()
-                        .setContent(ByteString.copyFrom(content))
-                        .build();
-                RecognizeRequest request = RecognizeRequest.newBuilder()
-                        .setConfig(config)
-                        .setAudio(audio)
-                        .build();
-                RecognizeResponse response = speech.recognize(request);
-                return joinResults(response.getResultsList());
+    // Decodes with a single ffmpeg process straight to 16kHz mono PCM; the first chunks decide
+    // between one sync request, chunked sync recognition, or a long-running operation via GCS.
+    @Override
+    public AsrSubmission submit(Path audioFile) throws Exception {
+        RecognitionConfig config = recognitionConfig();
+
+        try (GcpClientProvider.Lease gcp = gcpClients.lease();
+             FfmpegPcmSource.PcmStream pcm = pcmSource.open(audioFile)) {
+            SpeechClient speech = gcp.speech();
+            PcmChunker chunker = newChunker(pcm);
+            PcmChunk first = chunker.next();
+            PcmChunk second = first == null ? null : chunker.next();
+            if (second == null) {
+                pcm.awaitSuccess();
+                reportSkipped(chunker);
+                return AsrSubmission.completed(first == null ? "" : recognizeChunk(speech, config, first));
             }
 
             if (bucketName == null || bucketName.isBlank()) {
-                // Fallback: segment the WAV and run sync recognition per chunk
+                // Fallback: run sync recognition per chunk as ffmpeg produces them
                 log.warn("Large audio without GCS bucket configured; falling back to chunked sync recognition.");
-                return transcribeByChunks(speech, config, wav);
+                return AsrSubmission.completed(transcribeByChunks(speech, config, pcm, chunker, first, second));
             }
 
-            String gcsUri = uploadToGcs(creds, wav);
-            try {
-                RecognitionAudio audio = RecognitionAudio.newBuilder().setUri(gcsUri).build();
-                LongRunningRecognizeRequest lrReq = LongRunningRecognizeRequest.newBuilder()
-                        .setConfig(config)
-                        .setAudio(audio)
-                        .build();
-                OperationFuture<LongRunningRecognizeResponse, LongRunningRecognizeMetadata> future = speech.longRunningRecognizeAsync(lrReq);
-                // Wait using configured LRO polling (up to 1 hour as configured above)
-                LongRunningRecognizeResponse lrResp = future.get();
-                return joinResults(lrResp.getResultsList());
-            } finally {
-                deleteFromGcs(creds, gcsUri);
-            }
-        } finally {
-            try { Files.deleteIfExists(wav); } catch (Exception ignore) {}
+            String gcsUri = uploadPcmToGcs(pcm, chunker, audioFile, first, second);
+            return AsrSubmission.pending(startLongRunning(speech, config, gcsUri));
         }
     }
 
-    private String transcribeByChunks(SpeechClient speech, RecognitionConfig config, Path wav) throws Exception {
-        Path chunkDir = Files.createDirectories(Path.of("build", "asr-tmp", "chunks-" + UUID.randomUUID()));
-        Path pattern = chunkDir.resolve("chunk-%03d.wav");
-        String ffmpegCmd = resolveFfmpegCmd();
-        String[] cmd = new String[]{
-                ffmpegCmd,
-                "-y",
-                "-i", wav.toAbsolutePath().toString(),
-                "-f", "segment",
-                "-segment_time", "55",
-                "-c", "copy",
-                pattern.toAbsolutePath().toString()
-        };
-        Process p;
-        try {
-            p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
-        } catch (IOException io) {
-            throw new IllegalStateException("Failed to start ffmpeg at '" + ffmpegCmd + "'. Ensure ffmpeg is installed or set app.ffmpeg.path / FFMPEG_PATH / APP_FFMPEG_PATH.", io);
-        }
-        try (BufferedInputStream bis = new BufferedInputStream(p.getInputStream())) {
-            bis.readAllBytes();
+    private PcmChunker newChunker(FfmpegPcmSource.PcmStream pcm) {
+        if (!vadEnabled) {
+            return new FixedDurationChunker(pcm.pcm(), chunkSeconds);
         }
-        int code = p.waitFor();
-        if (code != 0) {
-            throw new IllegalStateException("ffmpeg failed to segment audio (exit=" + code + "). Command='" + ffmpegCmd + "'. Consider setting app.ffmpeg.path for an absolute path.");
+        return new VadChunker(pcm.pcm(), new VadChunker.Settings(vadMinChunkSeconds, chunkSeconds, vadPauseMs, vadPaddingMs));
+    }
+
+    private void reportSkipped(PcmChunker chunker) {
+        if (chunker instanceof VadChunker vad) {
+            log.info("VAD skipped {}s of silence out of {}s of audio",
+                    String.format("%.1f", vad.skippedSeconds()), String.format("%.1f", vad.totalSeconds()));
+            meterRegistry.counter("asr.vad.skipped.seconds").increment(vad.skippedSeconds());
+            meterRegistry.counter("asr.vad.total.seconds").increment(vad.totalSeconds());
         }
-        // Collect chunks in order
-        ArrayList<Path> chunks = new ArrayList<>();
-        try (Stream<Path> stream = Files.list(chunkDir)) {
-            stream.filter(f -> f.getFileName().toString().startsWith("chunk-") && f.toString().endsWith(".wav"))
-                    .sorted(Comparator.comparing(Path::toString))
-                    .forEach(chunks::add);
+    }
+
+    @Override
+    public String providerName() {
+        return "gcp";
+    }
+
+    @Override
+    public String languageCode() {
+        return languageCode;
+    }
+
+    private RecognitionConfig recognitionConfig() {
+        return RecognitionConfig.newBuilder()
+                .setLanguageCode(languageCode)
+                .setEnableAutomaticPunctuation(true)
+                .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
+                .setSampleRateHertz(FfmpegPcmSource.SAMPLE_RATE)
+                .setAudioChannelCount(1)
+                .build();
+    }
+
+    // Rolling chunk recognition over PCM that is still being decoded, e.g. while an upload arrives;
+    // chunks are recognized as soon as they are framed, so little work is left at end of stream
+    public String transcribeStream(FfmpegPcmSource.PcmStream pcm) throws Exception {
+        try (GcpClientProvider.Lease gcp = gcpClients.lease()) {
+            return transcribeByChunks(gcp.speech(), recognitionConfig(), pcm, newChunker(pcm));
         }
-        if (chunks.isEmpty()) {
-            throw new IllegalStateException("Audio segmentation produced no chunks.");
+    }
+
+    private String transcribeByChunks(SpeechClient speech, RecognitionConfig config, FfmpegPcmSource.PcmStream pcm,
+                                      PcmChunker chunker, PcmChunk... alreadyRead) throws Exception {
+        try (ParallelChunkRecognizer.Session<PcmChunk> session =
+                     chunkRecognizer.open((index, chunk) -> recognizeChunk(speech, config, chunk))) {
+            for (PcmChunk chunk : alreadyRead) {
+                session.submit(chunk);
+            }
+            PcmChunk next;
+            while ((next = chunker.next()) != null) {
+                session.submit(next);
+            }
+            pcm.awaitSuccess();
+            reportSkipped(chunker);
+            log.info("Recognizing {} chunks with up to {} in flight", session.submittedCount(), chunkRecognizer.getMaxInFlight());
+            return joinParts(session.finish());
         }
+    }
+
+    private String recognizeChunk(SpeechClient speech, RecognitionConfig config, PcmChunk chunk) throws Exception {
+        // Chunk buffers are never mutated after framing, so wrap instead of copying
+        RecognitionAudio audio = RecognitionAudio.newBuilder()
+                .setContent(UnsafeByteOperations.unsafeWrap(chunk.data()))
+                .build();
+        RecognizeRequest req = RecognizeRequest.newBuilder().setConfig(config).setAudio(audio).build();
+        RecognizeResponse resp = limiters.call(LIMITER, "recognize", () -> speech.recognize(req), GcpAsrService::isOverloaded);
+        return joinResults(resp.getResultsList());
+    }
+
+    private String joinParts(List<String> parts) {
         StringBuilder sb = new StringBuilder();
-        for (Path c : chunks) {
-            byte[] bytes = Files.readAllBytes(c);
-            RecognitionAudio audio = RecognitionAudio.newBuilder().setContent(ByteString.copyFrom(bytes)).build();
-            RecognizeRequest req = RecognizeRequest.newBuilder().setConfig(config).setAudio(audio).build();
-            RecognizeResponse resp = speech.recognize(req);
-            String part = joinResults(resp.getResultsList());
+        for (String part : parts) {
             if (!part.isBlank()) {
                 if (!sb.isEmpty()) sb.append(' ');
                 sb.append(part);
             }
         }
-        // Cleanup
-        try (Stream<Path> stream = Files.list(chunkDir)) {
-            stream.forEach(f -> { try { Files.deleteIfExists(f); } catch (Exception ignore) {} });
-        } catch (Exception ignore) {}
-        try { Files.deleteIfExists(chunkDir); } catch (Exception ignore) {}
         return sb.toString().trim();
     }
 
-    private Path convertToWav16kMono(Path input) throws Exception {
-        Path tempDir = Files.createDirectories(Path.of("build", "asr-tmp"));
-        Path out = tempDir.resolve("gcp-" + java.util.UUID.randomUUID() + ".wav");
-        String ffmpegCmd = resolveFfmpegCmd();
-        String[] cmd = new String[]{
-                ffmpegCmd,
-                "-y",
-                "-i", input.toAbsolutePath().toString(),
-                "-ac", "1",
-                "-ar", "16000",
-                "-f", "wav",
-                "-acodec", "pcm_s16le",
-                out.toAbsolutePath().toString()
-        };
-        Process p;
-        try {
-            p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
-        } catch (IOException io) {
-            throw new IllegalStateException("Failed to start ffmpeg at '" + ffmpegCmd + "'. Ensure ffmpeg is installed or set app.ffmpeg.path / FFMPEG_PATH / APP_FFMPEG_PATH.", io);
-        }
-        try (BufferedInputStream bis = new BufferedInputStream(p.getInputStream())) {
-            bis.readAllBytes();
-        }
-        int code = p.waitFor();
-        if (code != 0) {
-            throw new IllegalStateException("ffmpeg failed (" + code + ") converting audio. Command='" + ffmpegCmd + "'. Ensure ffmpeg is installed or set app.ffmpeg.path/FFMPEG_PATH/APP_FFMPEG_PATH.");
-        }
-        return out;
-    }
-
     private String joinResults(List<SpeechRecognitionResult> results) {
         return results.stream()
                 .map(SpeechRecognitionResult::getAlternativesList)
@@ -274,154 +230,101 @@ public class GcpAsrService implements AsrService {
                 .trim();
     }
 
-    private String uploadToGcs(Credentials creds, Path audioFile) throws Exception {
-        StorageOptions.Builder b = StorageOptions.newBuilder();
-        if (creds != null) b.setCredentials(creds);
-        Storage storage = b.build().getService();
-        String objectName = "uploads/" + UUID.randomUUID() + "-" + audioFile.getFileName();
-        BlobId blobId = BlobId.of(bucketName, objectName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType("application/octet-stream").build();
-        storage.create(blobInfo, Files.readAllBytes(audioFile));
+    // Streams headerless PCM into GCS: chunks already read first, then the rest of the chunker's output
+    private String uploadPcmToGcs(FfmpegPcmSource.PcmStream pcm, PcmChunker chunker, Path audioFile,
+                                  PcmChunk... alreadyRead) throws Exception {
+        String objectName = "uploads/" + UUID.randomUUID() + "-" + audioFile.getFileName() + ".pcm";
+        ChunkedPcmInputStream in = new ChunkedPcmInputStream(chunker, List.of(alreadyRead));
+        gcsUploader.upload(Channels.newChannel(in), -1L, bucketName, objectName,
+                (sent, total) -> log.debug("GCS upload {}: {} bytes", objectName, sent));
+        pcm.awaitSuccess();
+        reportSkipped(chunker);
         return "gs://" + bucketName + "/" + objectName;
     }
 
-    private void deleteFromGcs(Credentials creds, String gcsUri) {
-        try {
+    private void deleteFromGcs(String gcsUri) {
+        try (GcpClientProvider.Lease gcp = gcpClients.lease()) {
             if (gcsUri == null || !gcsUri.startsWith("gs://")) return;
             String noScheme = gcsUri.substring(5);
             int slash = noScheme.indexOf('/');
             if (slash < 0) return;
             String bucket = noScheme.substring(0, slash);
             String object = noScheme.substring(slash + 1);
-            StorageOptions.Builder b = StorageOptions.newBuilder();
-            if (creds != null) b.setCredentials(creds);
-            Storage storage = b.build().getService();
-            storage.delete(BlobId.of(bucket, object));
+            gcp.storage().delete(BlobId.of(bucket, object));
         } catch (Exception ignore) {
         }
     }
 
-    private Credentials resolveCredentials() throws Exception {
-        // 1) Explicit property path
-        Path p = tryResolveCredentialsPath();
-        if (p != null && Files.exists(p)) {
-            try (FileInputStream fis = new FileInputStream(p.toFile())) {
-                log.debug("Loading GCP credentials from: {}", p.toAbsolutePath());
-                return ServiceAccountCredentials.fromStream(fis);
-            }
-        }
-        // 2) GOOGLE_APPLICATION_CREDENTIALS env (explicit)
-        String gac = System.getenv("GOOGLE_APPLICATION_CREDENTIALS");
-        if (gac != null && !gac.isBlank()) {
-            Path envPath = Path.of(gac);
-            if (Files.exists(envPath)) {
-                try (FileInputStream fis = new FileInputStream(envPath.toFile())) {
-                    log.debug("Loading GCP credentials from GOOGLE_APPLICATION_CREDENTIALS: {}", envPath.toAbsolutePath());
-                    return ServiceAccountCredentials.fromStream(fis);
-                }
-            }
+    public record LongRunningHandle(String operationName, String gcsUri) {}
+
+    public LongRunningHandle startLongRunning(Path audioFile) throws Exception {
+        if (bucketName == null || bucketName.isBlank()) {
+            throw new IllegalStateException("app.gcp.bucket is required for long-running recognition");
         }
-        // 3) Fall back to ADC (may use ADC providers like gcloud login)
-        try {
-            log.debug("Falling back to Google Application Default Credentials...");
-            return GoogleCredentials.getApplicationDefault();
-        } catch (Exception e) {
-            String wd = System.getProperty("user.dir");
-            throw new IllegalStateException(
-                    "No GCP credentials found. Set app.gcp.credentials-path or GOOGLE_APPLICATION_CREDENTIALS. " +
-                    "Tried: property path, env var, and ADC. Working dir=" + wd,
-                    e);
+        try (GcpClientProvider.Lease gcp = gcpClients.lease();
+             FfmpegPcmSource.PcmStream pcm = pcmSource.open(audioFile)) {
+            String gcsUri = uploadPcmToGcs(pcm, newChunker(pcm), audioFile);
+            return startLongRunning(gcp.speech(), recognitionConfig(), gcsUri);
         }
     }
 
-    private Path tryResolveCredentialsPath() {
+    private LongRunningHandle startLongRunning(SpeechClient speech, RecognitionConfig config, String gcsUri) throws Exception {
         try {
-            // Prefer configured path
-            if (credentialsPath != null && !credentialsPath.isBlank()) {
-                return Path.of(credentialsPath);
-            }
-            // Try .env-provided alt env var if present
-            String alt = System.getenv("GCP_CREDENTIALS_PATH");
-            if (alt != null && !alt.isBlank()) {
-                Path p = Path.of(alt);
-                if (Files.exists(p)) return p;
-            }
-            // Try common local files
-            Path wd = Path.of(System.getProperty("user.dir"));
-            Path[] candidates = new Path[] {
-                    wd.resolve("cred.json"),
-                    wd.resolve("Unthinkable").resolve("cred.json"),
-                    Path.of("C:/Users/divya/OneDrive/Desktop/summarizeProject/Unthinkable/cred.json")
-            };
-            for (Path c : candidates) {
-                if (Files.exists(c)) return c;
-            }
-        } catch (Exception ignore) {}
-        return null;
-    }
-
-    public record LongRunningHandle(String operationName, String gcsUri) {}
-
-    public LongRunningHandle startLongRunning(Path audioFile) throws Exception {
-        Credentials creds = resolveCredentials();
-        SpeechSettings.Builder speechSettings = SpeechSettings.newBuilder();
-        if (creds != null) {
-            speechSettings.setCredentialsProvider(FixedCredentialsProvider.create(creds));
-        }
-        // Convert to 16kHz mono LINEAR16 WAV
-        Path wav = convertToWav16kMono(audioFile);
-        try (SpeechClient speech = SpeechClient.create(speechSettings.build())) {
-            if (bucketName == null || bucketName.isBlank()) {
-                throw new IllegalStateException("app.gcp.bucket is required for long-running recognition");
-            }
-            String gcsUri = uploadToGcs(creds, wav);
-            RecognitionConfig config = RecognitionConfig.newBuilder()
-                    .setLanguageCode(languageCode)
-                    .setEnableAutomaticPunctuation(true)
-                    .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
-                    .setSampleRateHertz(16000)
-                    .setAudioChannelCount(1)
-                    .build();
             RecognitionAudio audio = RecognitionAudio.newBuilder().setUri(gcsUri).build();
             LongRunningRecognizeRequest lrReq = LongRunningRecognizeRequest.newBuilder()
                     .setConfig(config)
                     .setAudio(audio)
                     .build();
-            OperationFuture<LongRunningRecognizeResponse, LongRunningRecognizeMetadata> future = speech.longRunningRecognizeAsync(lrReq);
-            String opName = future.getName();
+            String opName = limiters.call(LIMITER, "start-long-running", () -> {
+                OperationFuture<LongRunningRecognizeResponse, LongRunningRecognizeMetadata> future = speech.longRunningRecognizeAsync(lrReq);
+                return future.getName();
+            }, GcpAsrService::isOverloaded);
             log.info("Started GCP ASR LRO: {}", opName);
             return new LongRunningHandle(opName, gcsUri);
-        } finally {
-            try { Files.deleteIfExists(wav); } catch (Exception ignore) {}
+        } catch (Exception e) {
+            deleteFromGcs(gcsUri);
+            throw e;
         }
     }
 
-    public String pollOperation(String operationName) throws Exception {
-        Credentials creds = resolveCredentials();
-        SpeechSettings.Builder speechSettings = SpeechSettings.newBuilder();
-        if (creds != null) {
-            speechSettings.setCredentialsProvider(FixedCredentialsProvider.create(creds));
+    // Outcome of one poll: still running, finished with a transcript, or finished with an error.
+    // Exceptions from pollOperation are about the poll itself and are worth retrying.
+    public record OperationStatus(boolean done, String transcript, String error) {
+        public boolean failed() {
+            return done && error != null;
         }
-        try (SpeechClient speech = SpeechClient.create(speechSettings.build())) {
-            OperationsClient ops = speech.getOperationsClient();
-            Operation op = ops.getOperation(operationName);
-            if (!op.getDone()) {
-                return null; // still running
-            }
-            if (op.hasError()) {
-                throw new IllegalStateException("Transcription failed: code=" + op.getError().getCode() + ", msg=" + op.getError().getMessage());
-            }
-            LongRunningRecognizeResponse response = op.getResponse().unpack(LongRunningRecognizeResponse.class);
-            return joinResults(response.getResultsList());
+    }
+
+    // Not throttled by the Speech limiter: a poll is a cheap control-plane call, and waiting behind
+    // recognize calls would stall the LRO scheduler thread
+    public OperationStatus pollOperation(String operationName) throws Exception {
+        Operation op;
+        try (GcpClientProvider.Lease gcp = gcpClients.lease()) {
+            OperationsClient ops = gcp.speech().getOperationsClient();
+            op = ops.getOperation(operationName);
+        }
+        if (!op.getDone()) {
+            return new OperationStatus(false, null, null);
+        }
+        if (op.hasError()) {
+            return new OperationStatus(true, null,
+                    "Transcription failed: code=" + op.getError().getCode() + ", msg=" + op.getError().getMessage());
         }
+        LongRunningRecognizeResponse response = op.getResponse().unpack(LongRunningRecognizeResponse.class);
+        return new OperationStatus(true, joinResults(response.getResultsList()), null);
+    }
+
+    // Quota and deadline errors shrink the Speech concurrency limit; anything else is the request's own problem
+    private static boolean isOverloaded(Throwable t) {
+        Throwable cause = t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t;
+        if (!(cause instanceof ApiException api)) return false;
+        StatusCode.Code code = api.getStatusCode().getCode();
+        return code == StatusCode.Code.RESOURCE_EXHAUSTED
+                || code == StatusCode.Code.DEADLINE_EXCEEDED
+                || code == StatusCode.Code.UNAVAILABLE;
     }
 
     public void deleteGcsObject(String gcsUri) {
-        try {
-            Credentials creds = resolveCredentials();
-            deleteFromGcs(creds, gcsUri);
-        } catch (Exception e) {
-            log.warn("Failed to delete GCS object {}: {}", gcsUri, e.toString());
-        }
+        deleteFromGcs(gcsUri);
     }
 }
@@ -0,0 +1,275 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.longrunning.OperationTimedPollAlgorithm;
+import com.google.api.gax.retrying.RetrySettings;
+import com.google.auth.Credentials;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.speech.v1.SpeechClient;
+import com.google.cloud.speech.v1.SpeechSettings;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.threeten.bp.Duration;
+
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Owns the GCP credentials and the long-lived Speech/Storage clients shared by all ASR calls.
+// Credentials are resolved once; the source file is only stat'ed (at most every check interval)
+// and the clients are rebuilt when it changes. Callers lease the clients; the previous generation
+// is shut down once its last lease is returned.
+@Component
+public class GcpClientProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(GcpClientProvider.class);
+
+    @Value("${app.gcp.credentials-path:}")
+    private String credentialsPath;
+
+    @Value("${app.gcp.channel-pool-size:2}")
+    private int channelPoolSize;
+
+    @Value("${app.gcp.credentials-check-interval-ms:60000}")
+    private long credentialsCheckIntervalMs;
+
+    @Value("${app.gcp.client-shutdown-timeout-ms:30000}")
+    private long clientShutdownTimeoutMs;
+
+    private final Object lock = new Object();
+    private volatile Clients current;
+    private volatile long lastCheckMs;
+
+    // Counts the leases on one generation of clients, so a credentials rotation closes them only once
+    // the calls still using them are done
+    private static final class Clients {
+        final Path source;
+        final long sourceModified;
+        final SpeechClient speech;
+        final Storage storage;
+        final AtomicInteger users = new AtomicInteger();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean retired;
+
+        Clients(Path source, long sourceModified, SpeechClient speech, Storage storage) {
+            this.source = source;
+            this.sourceModified = sourceModified;
+            this.speech = speech;
+            this.storage = storage;
+        }
+    }
+
+    // Hold a lease for as long as the clients are in use (including operations started on them)
+    public final class Lease implements AutoCloseable {
+        private final Clients clients;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Clients clients) {
+            this.clients = clients;
+        }
+
+        public SpeechClient speech() {
+            return clients.speech;
+        }
+
+        public Storage storage() {
+            return clients.storage;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) release(clients);
+        }
+    }
+
+    public Lease lease() throws Exception {
+        while (true) {
+            Clients c = clients();
+            c.users.incrementAndGet();
+            // Retired between lookup and increment: its last user may already have gone; use the new ones
+            if (!c.retired) return new Lease(c);
+            release(c);
+        }
+    }
+
+    private void release(Clients c) {
+        if (c.users.decrementAndGet() == 0 && c.retired) close(c);
+    }
+
+    private Clients clients() throws Exception {
+        Clients c = current;
+        if (c != null && System.currentTimeMillis() - lastCheckMs < credentialsCheckIntervalMs) {
+            return c;
+        }
+        synchronized (lock) {
+            c = current;
+            long now = System.currentTimeMillis();
+            if (c != null && now - lastCheckMs < credentialsCheckIntervalMs) {
+                return c;
+            }
+            lastCheckMs = now;
+            Path source = locateCredentialsFile();
+            long modified = lastModified(source);
+            if (c != null && Objects.equals(source, c.source) && modified == c.sourceModified) {
+                return c;
+            }
+            Clients fresh = build(source, modified);
+            current = fresh;
+            if (c != null) {
+                log.info("GCP credentials changed ({}); rebuilt Speech and Storage clients, old ones close after {} in-flight user(s)",
+                        source, c.users.get());
+                c.retired = true;
+                if (c.users.get() == 0) close(c);
+            }
+            return fresh;
+        }
+    }
+
+    private Clients build(Path source, long modified) throws Exception {
+        Credentials creds = resolveCredentials(source);
+        SpeechClient speech = createSpeech(creds);
+        Storage storage = createStorage(creds);
+        log.info("Created shared GCP Speech client ({} channels) and Storage client", Math.max(1, channelPoolSize));
+        return new Clients(source, modified, speech, storage);
+    }
+
+    // Client construction and credential lookup are overridable, e.g. to run against fakes
+    protected SpeechClient createSpeech(Credentials creds) throws Exception {
+        SpeechSettings.Builder speechSettings = SpeechSettings.newBuilder();
+        if (creds != null) {
+            speechSettings.setCredentialsProvider(FixedCredentialsProvider.create(creds));
+        }
+        speechSettings.setTransportChannelProvider(SpeechSettings.defaultGrpcTransportProviderBuilder()
+                .setChannelPoolSettings(ChannelPoolSettings.staticallySized(Math.max(1, channelPoolSize)))
+                .build());
+        // Extend polling to handle long audios without cancellation (up to 1 hour)
+        RetrySettings lroRetry = RetrySettings.newBuilder()
+                .setInitialRetryDelay(Duration.ofSeconds(5))
+                .setRetryDelayMultiplier(1.5)
+                .setMaxRetryDelay(Duration.ofSeconds(45))
+                .setTotalTimeout(Duration.ofHours(1))
+                .build();
+        speechSettings
+                .longRunningRecognizeOperationSettings()
+                .setPollingAlgorithm(OperationTimedPollAlgorithm.create(lroRetry));
+        return SpeechClient.create(speechSettings.build());
+    }
+
+    protected Storage createStorage(Credentials creds) {
+        StorageOptions.Builder storageOptions = StorageOptions.newBuilder();
+        if (creds != null) storageOptions.setCredentials(creds);
+        return storageOptions.build().getService();
+    }
+
+    // Off the caller's thread: the last user may be holding the lock or a job slot
+    private void close(Clients c) {
+        Thread.ofVirtual().name("gcp-clients-close").start(() -> closeNow(c));
+    }
+
+    // Runs once per generation: lets calls on the channels finish, then closes
+    private void closeNow(Clients c) {
+        if (!c.closed.compareAndSet(false, true)) return;
+        try {
+            c.speech.shutdown();
+            if (!c.speech.awaitTermination(clientShutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("GCP Speech client did not terminate within {} ms; forcing shutdown", clientShutdownTimeoutMs);
+                c.speech.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            c.speech.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (Exception ignore) {
+        }
+        try { c.storage.close(); } catch (Exception ignore) {}
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (lock) {
+            Clients c = current;
+            current = null;
+            if (c != null) {
+                c.retired = true;
+                closeNow(c);
+            }
+        }
+    }
+
+    private long lastModified(Path p) {
+        try {
+            return p == null ? 0L : Files.getLastModifiedTime(p).toMillis();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    private Path locateCredentialsFile() {
+        // 1) Explicit property path
+        Path p = tryResolveCredentialsPath();
+        if (p != null && Files.exists(p)) return p;
+        // 2) GOOGLE_APPLICATION_CREDENTIALS env (explicit)
+        String gac = System.getenv("GOOGLE_APPLICATION_CREDENTIALS");
+        if (gac != null && !gac.isBlank()) {
+            Path envPath = Path.of(gac);
+            if (Files.exists(envPath)) return envPath;
+        }
+        return null;
+    }
+
+    protected Credentials resolveCredentials(Path source) throws Exception {
+        if (source != null) {
+            try (FileInputStream fis = new FileInputStream(source.toFile())) {
+                log.debug("Loading GCP credentials from: {}", source.toAbsolutePath());
+                return ServiceAccountCredentials.fromStream(fis);
+            }
+        }
+        // 3) Fall back to ADC (may use ADC providers like gcloud login)
+        try {
+            log.debug("Falling back to Google Application Default Credentials...");
+            return GoogleCredentials.getApplicationDefault();
+        } catch (Exception e) {
+            String wd = System.getProperty("user.dir");
+            throw new IllegalStateException(
+                    "No GCP credentials found. Set app.gcp.credentials-path or GOOGLE_APPLICATION_CREDENTIALS. " +
+                    "Tried: property path, env var, and ADC. Working dir=" + wd,
+                    e);
+        }
+    }
+
+    protected Path tryResolveCredentialsPath() {
+        try {
+            // Prefer configured path
+            if (credentialsPath != null && !credentialsPath.isBlank()) {
+                return Path.of(credentialsPath);
+            }
+            // Try .env-provided alt env var if present
+            String alt = System.getenv("GCP_CREDENTIALS_PATH");
+            if (alt != null && !alt.isBlank()) {
+                Path p = Path.of(alt);
+                if (Files.exists(p)) return p;
+            }
+            // Try common local files
+            Path wd = Path.of(System.getProperty("user.dir"));
+            Path[] candidates = new Path[] {
+                    wd.resolve("cred.json"),
+                    wd.resolve("Unthinkable").resolve("cred.json"),
+                    Path.of("C:/Users/divya/OneDrive/Desktop/summarizeProject/Unthinkable/cred.json")
+            };
+            for (Path c : candidates) {
+                if (Files.exists(c)) return c;
+            }
+        } catch (Exception ignore) {}
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// Uploads to GCS through a resumable write channel fed from a readable channel (a pipe, or a file)
+// in fixed-size buffers, so heap use stays at one buffer regardless of audio length. The channel state
+// is captured after every buffer and restored on a transient failure instead of starting over.
+@Component
+public class GcsStreamingUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(GcsStreamingUploader.class);
+
+    // GCS resumable uploads require chunk sizes that are a multiple of 256 KiB
+    private static final int CHUNK_ALIGNMENT = 256 * 1024;
+
+    private final GcpClientProvider gcpClients;
+    private final int chunkBytes;
+    private final int maxResumes;
+
+    public GcsStreamingUploader(GcpClientProvider gcpClients,
+                                @Value("${app.gcp.upload-chunk-bytes:8388608}") int chunkBytes,
+                                @Value("${app.gcp.upload-max-resumes:3}") int maxResumes) {
+        this.gcpClients = gcpClients;
+        this.chunkBytes = Math.max(1, chunkBytes / CHUNK_ALIGNMENT) * CHUNK_ALIGNMENT;
+        this.maxResumes = Math.max(0, maxResumes);
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    // totalBytes may be -1 when the source is a pipe of unknown length
+    public void upload(ReadableByteChannel in, long totalBytes, String bucket, String objectName, ProgressListener progress) throws Exception {
+        try (GcpClientProvider.Lease gcp = gcpClients.lease()) {
+            upload(gcp.storage(), in, totalBytes, bucket, objectName, progress);
+        }
+    }
+
+    // For a caller that already holds a lease on the clients
+    public void upload(Storage storage, ReadableByteChannel in, long totalBytes, String bucket, String objectName,
+                       ProgressListener progress) throws Exception {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucket, objectName))
+                .setContentType("application/octet-stream")
+                .build();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkBytes);
+        WriteChannel writer = storage.writer(blobInfo);
+        boolean finished = false;
+        try {
+            writer.setChunkSize(chunkBytes);
+            RestorableState<WriteChannel> checkpoint = writer.capture();
+            long sent = 0L;
+            int resumes = 0;
+            while (fill(in, buffer) > 0) {
+                // Re-send the whole buffer from the last checkpoint if the write fails part-way
+                while (true) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            writer.write(buffer);
+                        }
+                        break;
+                    } catch (IOException | StorageException e) {
+                        resumes = resumeOrThrow(e, resumes, objectName, sent, totalBytes);
+                        writer = checkpoint.restore();
+                        buffer.rewind();
+                    }
+                }
+                checkpoint = writer.capture();
+                sent += buffer.limit();
+                if (progress != null) progress.onProgress(sent, totalBytes);
+            }
+            while (true) {
+                try {
+                    writer.close();
+                    break;
+                } catch (IOException | StorageException e) {
+                    resumes = resumeOrThrow(e, resumes, objectName, sent, totalBytes);
+                    writer = checkpoint.restore();
+                }
+            }
+            finished = true;
+            log.info("Uploaded {} bytes to gs://{}/{}{}", sent, bucket, objectName,
+                    resumes > 0 ? " after " + resumes + " resume(s)" : "");
+        } finally {
+            if (!finished) abandon(storage, writer, blobInfo.getBlobId());
+        }
+    }
+
+    // Closing a resumable upload commits what was sent so far, so the partial object is deleted right after
+    private void abandon(Storage storage, WriteChannel writer, BlobId blobId) {
+        try {
+            writer.close();
+        } catch (Exception ignore) {
+        }
+        try {
+            storage.delete(blobId);
+        } catch (Exception e) {
+            log.warn("Could not delete partial upload gs://{}/{}: {}", blobId.getBucket(), blobId.getName(), e.toString());
+        }
+    }
+
+    private int fill(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) break;
+        }
+        buffer.flip();
+        return buffer.limit();
+    }
+
+    private int resumeOrThrow(Exception e, int resumes, String objectName, long sent, long total) throws Exception {
+        if (!isTransient(e) || resumes >= maxResumes) {
+            throw e;
+        }
+        int attempt = resumes + 1;
+        log.warn("GCS upload of {} interrupted at {}/{} bytes ({}); resuming ({}/{})",
+                objectName, sent, total, e.toString(), attempt, maxResumes);
+        Thread.sleep(1000L * attempt);
+        return attempt;
+    }
+
+    private boolean isTransient(Exception e) {
+        if (e instanceof StorageException se) return se.isRetryable();
+        return true;
+    }
+}
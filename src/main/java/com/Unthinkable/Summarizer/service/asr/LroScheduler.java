@@ -0,0 +1,147 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Tracks long-running recognitions in LroStore and polls all of them from one scheduled timer, so
+// no thread waits on an operation. Each entry backs off between polls; when an operation finishes
+// an event hands the result to the meeting pipeline, and only once that hand-off has returned is the
+// entry removed. Entries survive restarts because they live in the store.
+@Component
+public class LroScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LroScheduler.class);
+
+    private final GcpAsrService gcpAsrService;
+    private final LroStore lroStore;
+    private final TranscriptCache transcriptCache;
+    private final ApplicationEventPublisher events;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final long timeoutMs;
+
+    public LroScheduler(GcpAsrService gcpAsrService,
+                        LroStore lroStore,
+                        TranscriptCache transcriptCache,
+                        ApplicationEventPublisher events,
+                        @Value("${app.asr.lro.initial-poll-delay-ms:15000}") long initialDelayMs,
+                        @Value("${app.asr.lro.max-poll-delay-ms:120000}") long maxDelayMs,
+                        @Value("${app.asr.lro.timeout-ms:7200000}") long timeoutMs) {
+        this.gcpAsrService = gcpAsrService;
+        this.lroStore = lroStore;
+        this.transcriptCache = transcriptCache;
+        this.events = events;
+        this.initialDelayMs = Math.max(1000L, initialDelayMs);
+        this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void track(Integer meetingId, String audioSha256, GcpAsrService.LongRunningHandle handle, int jobAttempt) {
+        long now = System.currentTimeMillis();
+        lroStore.put(meetingId, new LroStore.Entry(handle.operationName(), handle.gcsUri(), audioSha256,
+                now, now + initialDelayMs, 0, jobAttempt));
+        log.info("Meeting {}: tracking ASR operation {}", meetingId, handle.operationName());
+    }
+
+    // Operations tracked before a restart are polled on the first tick instead of after their backoff,
+    // so anything that finished while the process was down continues right away
+    @EventListener(ApplicationReadyEvent.class)
+    void resumePending() {
+        long now = System.currentTimeMillis();
+        Map<Integer, LroStore.Entry> pending = lroStore.getAll();
+        for (Map.Entry<Integer, LroStore.Entry> e : pending.entrySet()) {
+            LroStore.Entry entry = e.getValue();
+            entry.setNextPollAt(now);
+            lroStore.updateIfPresent(e.getKey(), entry);
+        }
+        if (!pending.isEmpty()) {
+            log.info("Resuming {} pending ASR operation(s) from the LRO store", pending.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.asr.lro.poll-tick-ms:5000}", initialDelayString = "${app.asr.lro.poll-tick-ms:5000}")
+    public void pollDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, LroStore.Entry> e : lroStore.getAll().entrySet()) {
+            if (e.getValue().getNextPollAt() <= now) {
+                poll(e.getKey(), e.getValue(), now);
+            }
+        }
+    }
+
+    private void poll(Integer meetingId, LroStore.Entry entry, long now) {
+        String transcript = null;
+        try {
+            GcpAsrService.OperationStatus status = gcpAsrService.pollOperation(entry.getOperationName());
+            if (status.failed()) {
+                // The operation itself completed with an error
+                log.warn("Meeting {}: ASR operation {} failed: {}", meetingId, entry.getOperationName(), status.error());
+                if (handOver(meetingId, entry, new TranscriptionFailedEvent(meetingId, status.error(), Math.max(1, entry.getJobAttempt())))) {
+                    claim(meetingId, entry);
+                    return;
+                }
+            }
+            transcript = status.transcript();
+        } catch (Exception e) {
+            // Credentials, network or quota trouble while polling; the operation may still be fine
+            log.warn("Meeting {}: polling ASR operation {} failed, will retry: {}", meetingId, entry.getOperationName(), e.toString());
+        }
+
+        if (transcript != null) {
+            log.info("Meeting {}: ASR operation finished after {} poll(s)", meetingId, entry.getAttempts() + 1);
+            transcriptCache.store(entry.getAudioSha256(), transcript);
+            if (handOver(meetingId, entry, new TranscriptionCompletedEvent(meetingId, transcript))) {
+                claim(meetingId, entry);
+                return;
+            }
+        }
+
+        long startedAt = entry.getStartedAt() > 0 ? entry.getStartedAt() : now;
+        if (now - startedAt > timeoutMs) {
+            String reason = "ASR operation " + entry.getOperationName() + " did not finish within " + (timeoutMs / 60000) + " minutes";
+            log.warn("Meeting {}: {}", meetingId, reason);
+            if (handOver(meetingId, entry, new TranscriptionFailedEvent(meetingId, reason, Math.max(1, entry.getJobAttempt())))) {
+                claim(meetingId, entry);
+                return;
+            }
+        }
+        entry.setStartedAt(startedAt);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setNextPollAt(now + backoffMs(entry.getAttempts()));
+        lroStore.updateIfPresent(meetingId, entry);
+    }
+
+    // The listeners persist what the pipeline needs to continue; false (entry kept, polled again after
+    // the backoff) if they could not
+    private boolean handOver(Integer meetingId, LroStore.Entry entry, Object event) {
+        try {
+            events.publishEvent(event);
+            return true;
+        } catch (Exception e) {
+            log.warn("Meeting {}: handing over ASR operation {} failed, will retry: {}", meetingId, entry.getOperationName(), e.toString());
+            return false;
+        }
+    }
+
+    // Only after the hand-off. Several workers may share the store and hand over the same operation;
+    // the duplicate job resumes from the meeting's checkpoints, and only the one that removes the entry
+    // deletes the audio
+    private void claim(Integer meetingId, LroStore.Entry entry) {
+        if (lroStore.removeIfPresent(meetingId, entry.getOperationName())) {
+            gcpAsrService.deleteGcsObject(entry.getGcsUri());
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        double delay = initialDelayMs * Math.pow(1.5, Math.min(attempts, 20));
+        return (long) Math.min(maxDelayMs, delay);
+    }
+}
@@ -1,7 +1,10 @@
 package com.Unthinkable.Summarizer.service.asr;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,80 +13,290 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Append-only JSON-lines journal of pending long-running operations with an in-memory index.
+// Every update appends one line; other processes sharing the directory catch up by reading only
+// the bytes appended since their last look. A lock file serializes writers across processes, and
+// the journal is rewritten (with a new generation header) once dead records outnumber live ones.
 @Service
 public class LroStore {
     private static final Logger log = LoggerFactory.getLogger(LroStore.class);
 
-    private final Object lock = new Object();
+    private static final String JOURNAL_FILE = "lro-jobs.journal";
+    private static final String LOCK_FILE = "lro-jobs.lock";
+    private static final String LEGACY_FILE = "lro-jobs.json";
+    private static final int HEADER_PROBE_BYTES = 256;
+
+    // FileLock is held per JVM, so threads (and any second store on the same directory) queue here first
+    private static final Map<Path, ReentrantLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock;
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Path filePath;
+    private final Path dir;
+    private final Path journalPath;
+    private final FileChannel lockChannel;
+    private final int compactMinRecords;
+
+    // Guarded by lock
+    private final Map<Integer, Entry> index = new LinkedHashMap<>();
+    private long generation = -1;
+    private long readPosition;
+    private long records;
 
-    public LroStore(@Value("${app.storage.base-dir:./build/asr-tmp}") String baseDir) throws IOException {
-        Path dir = Path.of(baseDir).toAbsolutePath().normalize();
+    public LroStore(@Value("${app.storage.base-dir:./build/asr-tmp}") String baseDir,
+                    @Value("${app.asr.lro.store-compact-min-records:1000}") int compactMinRecords) throws IOException {
+        this.dir = Path.of(baseDir).toAbsolutePath().normalize();
         Files.createDirectories(dir);
-        this.filePath = dir.resolve("lro-jobs.json");
-        if (!Files.exists(this.filePath)) {
-            save(new LinkedHashMap<>());
-        }
+        this.journalPath = dir.resolve(JOURNAL_FILE);
+        this.lock = JVM_LOCKS.computeIfAbsent(journalPath, p -> new ReentrantLock());
+        this.compactMinRecords = Math.max(1, compactMinRecords);
+        this.lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        withLock(() -> null);
+        log.info("LRO store {} loaded with {} pending operation(s)", journalPath, index.size());
     }
 
-    public void put(Integer meetingId, String operationName, String gcsUri) {
-        synchronized (lock) {
-            Map<Integer, Entry> all = load();
-            all.put(meetingId, new Entry(operationName, gcsUri));
-            save(all);
-        }
+    public void put(Integer meetingId, Entry entry) {
+        withLock(() -> {
+            append(new JournalRecord("put", meetingId, entry, null));
+            return null;
+        });
+    }
+
+    // Only rewrites an entry that is still tracking the same operation, so a poll result computed
+    // from a stale snapshot cannot resurrect an operation another process already completed
+    public boolean updateIfPresent(Integer meetingId, Entry entry) {
+        return withLock(() -> {
+            Entry current = index.get(meetingId);
+            if (current == null || !Objects.equals(current.getOperationName(), entry.getOperationName())) {
+                return false;
+            }
+            append(new JournalRecord("put", meetingId, entry, null));
+            return true;
+        });
     }
 
     public void remove(Integer meetingId) {
-        synchronized (lock) {
-            Map<Integer, Entry> all = load();
-            all.remove(meetingId);
-            save(all);
-        }
+        withLock(() -> {
+            if (index.containsKey(meetingId)) {
+                append(new JournalRecord("remove", meetingId, null, null));
+            }
+            return null;
+        });
+    }
+
+    // Exactly one caller (in any process) gets true for a given operation; that caller owns its completion
+    public boolean removeIfPresent(Integer meetingId, String operationName) {
+        return withLock(() -> {
+            Entry current = index.get(meetingId);
+            if (current == null || !Objects.equals(current.getOperationName(), operationName)) {
+                return false;
+            }
+            append(new JournalRecord("remove", meetingId, null, null));
+            return true;
+        });
     }
 
     public Map<Integer, Entry> getAll() {
-        synchronized (lock) {
-            return Collections.unmodifiableMap(load());
+        return withLock(() -> {
+            Map<Integer, Entry> snapshot = new LinkedHashMap<>();
+            index.forEach((id, e) -> snapshot.put(id, e.copy()));
+            return Collections.unmodifiableMap(snapshot);
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        try { lockChannel.close(); } catch (IOException ignore) {}
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T withLock(LockedAction<T> action) {
+        lock.lock();
+        try (FileLock ignored = lockChannel.lock()) {
+            if (!Files.exists(journalPath)) {
+                initialize();
+            }
+            catchUp();
+            return action.run();
+        } catch (IOException e) {
+            throw new IllegalStateException("LRO store I/O failed: " + journalPath, e);
+        } finally {
+            lock.unlock();
         }
     }
 
-    private Map<Integer, Entry> load() {
-        try {
-            if (!Files.exists(filePath)) return new LinkedHashMap<>();
-            byte[] bytes = Files.readAllBytes(filePath);
-            if (bytes.length == 0) return new LinkedHashMap<>();
-            return mapper.readValue(bytes, new TypeReference<Map<Integer, Entry>>(){});
-        } catch (Exception e) {
-            log.warn("Failed to load LRO store: {}", e.toString());
-            return new LinkedHashMap<>();
+    private void initialize() throws IOException {
+        Map<Integer, Entry> initial = new LinkedHashMap<>();
+        Path legacy = dir.resolve(LEGACY_FILE);
+        if (Files.exists(legacy)) {
+            byte[] bytes = Files.readAllBytes(legacy);
+            if (bytes.length > 0) {
+                initial.putAll(mapper.readValue(bytes, new TypeReference<Map<Integer, Entry>>(){}));
+            }
+        }
+        writeGeneration(0, initial);
+        if (Files.exists(legacy)) {
+            Files.move(legacy, dir.resolve(LEGACY_FILE + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            log.info("Migrated {} pending operation(s) from {} to {}", initial.size(), LEGACY_FILE, JOURNAL_FILE);
+        }
+    }
+
+    // Applies whatever was appended since the last call; a new generation means another process compacted
+    private void catchUp() throws IOException {
+        try (FileChannel ch = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            long fileGeneration = readGeneration(ch);
+            if (fileGeneration != generation) {
+                index.clear();
+                generation = fileGeneration;
+                readPosition = 0;
+                records = 0;
+            }
+            long size = ch.size();
+            if (size <= readPosition) return;
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size - readPosition));
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, readPosition + buf.position()) < 0) break;
+            }
+            byte[] data = buf.array();
+            int lineStart = 0;
+            for (int i = 0; i < buf.position(); i++) {
+                if (data[i] == '\n') {
+                    applyLine(data, lineStart, i - lineStart);
+                    lineStart = i + 1;
+                }
+            }
+            // An unterminated tail is a write still in progress elsewhere or a torn write; read it next time
+            readPosition += lineStart;
+        }
+    }
+
+    private long readGeneration(FileChannel ch) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(HEADER_PROBE_BYTES);
+        ch.read(probe, 0);
+        byte[] data = probe.array();
+        for (int i = 0; i < probe.position(); i++) {
+            if (data[i] == '\n') {
+                JournalRecord header = mapper.readValue(data, 0, i, JournalRecord.class);
+                if ("header".equals(header.op()) && header.generation() != null) {
+                    return header.generation();
+                }
+                break;
+            }
         }
+        throw new IllegalStateException("LRO journal " + journalPath + " has no generation header");
     }
 
-    private void save(Map<Integer, Entry> data) {
+    private void applyLine(byte[] data, int offset, int length) {
+        if (length == 0) return;
+        JournalRecord rec;
         try {
-            byte[] bytes = mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(data);
-            Files.write(filePath, bytes);
+            rec = mapper.readValue(data, offset, length, JournalRecord.class);
         } catch (IOException e) {
-            log.error("Failed to persist LRO store: {}", e.toString());
+            log.warn("Skipping unreadable LRO journal record: {}", e.toString());
+            return;
+        }
+        apply(rec);
+    }
+
+    private void apply(JournalRecord rec) {
+        switch (rec.op()) {
+            case "put" -> {
+                index.put(rec.meetingId(), rec.entry().copy());
+                records++;
+            }
+            case "remove" -> {
+                index.remove(rec.meetingId());
+                records++;
+            }
+            default -> {
+                // header
+            }
+        }
+    }
+
+    private void append(JournalRecord rec) throws IOException {
+        byte[] line = (mapper.writeValueAsString(rec) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel ch = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (ch.size() > readPosition) {
+                // Leftover of a writer that died mid-line: terminate it so readers skip it as one bad record
+                ch.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+            ByteBuffer buf = ByteBuffer.wrap(line);
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            readPosition = ch.size();
+        }
+        apply(rec);
+        if (records >= compactMinRecords && records > 2L * index.size()) {
+            writeGeneration(generation + 1, index);
+        }
+    }
+
+    // Writes a fresh journal holding only live entries and swaps it in atomically
+    private void writeGeneration(long newGeneration, Map<Integer, Entry> live) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(mapper.writeValueAsBytes(new JournalRecord("header", null, null, newGeneration)));
+        out.write('\n');
+        for (Map.Entry<Integer, Entry> e : live.entrySet()) {
+            out.write(mapper.writeValueAsBytes(new JournalRecord("put", e.getKey(), e.getValue(), null)));
+            out.write('\n');
+        }
+        Path tmp = dir.resolve(JOURNAL_FILE + ".tmp");
+        Files.write(tmp, out.toByteArray());
+        Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Map<Integer, Entry> kept = new LinkedHashMap<>(live);
+        index.clear();
+        index.putAll(kept);
+        generation = newGeneration;
+        readPosition = out.size();
+        records = index.size();
+        if (newGeneration > 0) {
+            log.debug("Compacted LRO journal to generation {} ({} live entries)", newGeneration, index.size());
         }
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record JournalRecord(String op, Integer meetingId, Entry entry, Long generation) {}
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Entry {
         private String operationName;
         private String gcsUri;
+        // Used to seed the transcript cache once the operation finishes
+        private String audioSha256;
+        // Epoch millis; entries written before scheduling existed have 0 and are polled right away
+        private long startedAt;
+        private long nextPollAt;
+        private int attempts;
+        // Attempt of the meeting job that started the operation; 0 in entries written before retries
+        private int jobAttempt;
+
+        Entry copy() {
+            return new Entry(operationName, gcsUri, audioSha256, startedAt, nextPollAt, attempts, jobAttempt);
+        }
     }
 }
-
@@ -0,0 +1,168 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Recognizes audio chunks concurrently with a bounded number of in-flight requests.
+// Chunks that fail in the parallel pass are retried one at a time afterwards; results keep chunk order.
+@Component
+public class ParallelChunkRecognizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelChunkRecognizer.class);
+
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final ExecutorService executor;
+
+    public ParallelChunkRecognizer(@Value("${app.asr.chunk-parallelism:4}") int maxInFlight,
+                                   @Value("${app.asr.chunk-max-retries:2}") int maxRetries,
+                                   @Value("${app.asr.chunk-retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "asr-chunk-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @FunctionalInterface
+    public interface ChunkTask<T> {
+        String recognize(int index, T chunk) throws Exception;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public <T> List<String> recognizeAll(List<T> chunks, ChunkTask<T> task) throws Exception {
+        try (Session<T> session = open(task)) {
+            for (T chunk : chunks) {
+                session.submit(chunk);
+            }
+            return session.finish();
+        }
+    }
+
+    // Opens a session that accepts chunks as they are produced; submit blocks while the window is full
+    public <T> Session<T> open(ChunkTask<T> task) {
+        return open(task, maxInFlight);
+    }
+
+    // Same, with a window of its own for callers whose chunks are much larger than a recognize request
+    public <T> Session<T> open(ChunkTask<T> task, int maxInFlight) {
+        return new Session<>(task, Math.max(1, maxInFlight));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Session<T> implements AutoCloseable {
+        private final ChunkTask<T> task;
+        private final int windowSize;
+        private final Semaphore window;
+        private final Map<Integer, String> results = new ConcurrentSkipListMap<>();
+        private final ConcurrentLinkedQueue<Failed<T>> failures = new ConcurrentLinkedQueue<>();
+        private final List<Future<?>> inFlight = new ArrayList<>();
+        private int submitted;
+        private boolean finished;
+
+        private Session(ChunkTask<T> task, int windowSize) {
+            this.task = task;
+            this.windowSize = windowSize;
+            this.window = new Semaphore(windowSize);
+        }
+
+        public void submit(T chunk) throws InterruptedException {
+            if (finished) throw new IllegalStateException("Session already finished");
+            int index = submitted++;
+            window.acquire();
+            try {
+                inFlight.add(executor.submit(() -> {
+                    try {
+                        results.put(index, nullToEmpty(task.recognize(index, chunk)));
+                    } catch (Exception e) {
+                        log.warn("ASR chunk {} failed, will retry: {}", index, e.toString());
+                        failures.add(new Failed<>(index, chunk, e));
+                    } finally {
+                        window.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                window.release();
+                throw e;
+            }
+            inFlight.removeIf(Future::isDone);
+        }
+
+        public int submittedCount() {
+            return submitted;
+        }
+
+        public List<String> finish() throws Exception {
+            finished = true;
+            // Wait for every in-flight request to drain
+            window.acquire(windowSize);
+            window.release(windowSize);
+
+            List<Failed<T>> retry = new ArrayList<>(failures);
+            retry.sort(Comparator.comparingInt(Failed::index));
+            for (Failed<T> f : retry) {
+                results.put(f.index(), retryChunk(f));
+            }
+            List<String> ordered = new ArrayList<>(submitted);
+            for (int i = 0; i < submitted; i++) {
+                ordered.add(results.getOrDefault(i, ""));
+            }
+            return ordered;
+        }
+
+        private String retryChunk(Failed<T> f) throws Exception {
+            Exception last = f.error();
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                Thread.sleep(retryBackoffMs * attempt);
+                try {
+                    return nullToEmpty(task.recognize(f.index(), f.chunk()));
+                } catch (Exception e) {
+                    last = e;
+                    log.warn("ASR chunk {} retry {}/{} failed: {}", f.index(), attempt, maxRetries, e.toString());
+                }
+            }
+            throw new IllegalStateException("ASR chunk " + f.index() + " failed after " + (maxRetries + 1) + " attempts", last);
+        }
+
+        @Override
+        public void close() {
+            if (!finished) {
+                finished = true;
+                inFlight.forEach(fu -> fu.cancel(true));
+            }
+        }
+    }
+
+    private record Failed<T>(int index, T chunk, Exception error) {}
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,13 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+// A slice of 16 kHz mono PCM16 audio; startSample is its offset in the decoded stream
+public record PcmChunk(int index, long startSample, byte[] data) {
+
+    public double durationSeconds() {
+        return data.length / (double) FfmpegPcmSource.BYTES_PER_SECOND;
+    }
+
+    public double startSeconds() {
+        return startSample / (double) FfmpegPcmSource.SAMPLE_RATE;
+    }
+}
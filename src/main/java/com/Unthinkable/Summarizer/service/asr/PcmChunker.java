@@ -0,0 +1,8 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import java.io.IOException;
+
+public interface PcmChunker {
+    // Returns the next chunk, or null once the stream is exhausted
+    PcmChunk next() throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import com.Unthinkable.Summarizer.service.StorageService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tees an incoming upload to disk and into ffmpeg at the same time, with rolling chunk recognition
+// running on the decoded PCM. The copy into ffmpeg never holds up the upload: if recognition falls
+// too far behind it is dropped. The transcript is handed to the transcript cache under the upload's
+// hash, so the regular pipeline picks it up instead of transcribing again. Any streaming failure
+// only costs the head start: the upload itself is still stored and processed normally.
+@Service
+public class StreamingUploadTranscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingUploadTranscriber.class);
+
+    private final StorageService storageService;
+    private final FfmpegPcmSource pcmSource;
+    private final GcpAsrService gcpAsrService;
+    private final TranscriptCache transcriptCache;
+    private final long teeBufferBytes;
+    private final ExecutorService executor;
+
+    public StreamingUploadTranscriber(StorageService storageService,
+                                      FfmpegPcmSource pcmSource,
+                                      GcpAsrService gcpAsrService,
+                                      TranscriptCache transcriptCache,
+                                      @Value("${app.asr.stream.tee-buffer-bytes:8388608}") long teeBufferBytes) {
+        this.storageService = storageService;
+        this.pcmSource = pcmSource;
+        this.gcpAsrService = gcpAsrService;
+        this.transcriptCache = transcriptCache;
+        this.teeBufferBytes = Math.max(64 * 1024, teeBufferBytes);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "asr-stream-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Returns as soon as the upload is on disk; recognition finishes in the background and lands in the
+    // transcript cache, where the meeting job waits for it
+    public StorageService.StoredAudio saveAndTranscribe(Integer userId, InputStream body, String originalFilename) throws Exception {
+        FfmpegPcmSource.PcmStream pcm;
+        try {
+            pcm = pcmSource.openPipe();
+        } catch (Exception e) {
+            log.warn("Streaming recognition unavailable ({}); storing upload only", e.getMessage());
+            return storageService.saveAudioFromStream(userId, body, originalFilename);
+        }
+        DetachingTeeInputStream tee = new DetachingTeeInputStream(body, pcm.stdin(), teeBufferBytes);
+        CompletableFuture<String> recognition;
+        try {
+            executor.execute(tee::pump);
+            recognition = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return gcpAsrService.transcribeStream(pcm);
+                } catch (Exception e) {
+                    // Nothing reads ffmpeg's output any more; stop feeding it
+                    tee.detach();
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            tee.detach();
+            pcm.close();
+            log.warn("Streaming recognition unavailable ({}); storing upload only", e.getMessage());
+            return storageService.saveAudioFromStream(userId, body, originalFilename);
+        }
+
+        StorageService.StoredAudio saved;
+        try {
+            saved = storageService.saveAudioFromStream(userId, tee, originalFilename);
+        } catch (Exception e) {
+            tee.detach();
+            pcm.close();
+            throw e;
+        } finally {
+            tee.endBranch();
+        }
+        if (tee.detached()) {
+            pcm.close();
+            log.warn("Streaming recognition fell behind or stopped before the upload ended; the stored file will be transcribed normally");
+            return saved;
+        }
+
+        long uploadEnd = System.currentTimeMillis();
+        CompletableFuture<String> transcript = recognition.thenApply(text -> {
+            // The branch can still be dropped after the last upload byte; ffmpeg then saw only part of the audio
+            if (tee.detached()) throw new IllegalStateException("streaming recognition saw only part of the upload");
+            log.info("Streaming transcript for {} ready {} ms after the last upload byte",
+                    saved.path().getFileName(), System.currentTimeMillis() - uploadEnd);
+            return text;
+        });
+        transcript.whenComplete((text, error) -> pcm.close());
+        transcriptCache.expect(saved.sha256(), transcript);
+        return saved;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,156 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import com.Unthinkable.Summarizer.model.TranscriptCacheEntry;
+import com.Unthinkable.Summarizer.repository.TranscriptCacheRepository;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Content-addressed transcripts: the same audio bytes (SHA-256) recognized by the same provider
+// and language are only ever sent to ASR once, across reprocessing and duplicate uploads.
+@Service
+public class TranscriptCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptCache.class);
+
+    private final TranscriptCacheRepository repository;
+    private final AsrService asrService;
+    private final WorkerResourceGuard resources;
+    private final Counter hits;
+    private final Counter misses;
+    private final long streamAwaitMs;
+    // Transcripts still being recognized while their upload arrived, by audio hash
+    private final Map<String, CompletableFuture<String>> streaming = new ConcurrentHashMap<>();
+
+    public TranscriptCache(TranscriptCacheRepository repository, AsrService asrService, WorkerResourceGuard resources,
+                           MeterRegistry meterRegistry, @Value("${app.asr.stream.await-ms:600000}") long streamAwaitMs) {
+        this.repository = repository;
+        this.asrService = asrService;
+        this.resources = resources;
+        this.streamAwaitMs = Math.max(0, streamAwaitMs);
+        this.hits = Counter.builder("asr.transcript.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("asr.transcript.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public String transcribe(String audioSha256, Path audioFile) throws Exception {
+        if (audioSha256 == null || audioSha256.isBlank()) {
+            return asrService.transcribe(audioFile);
+        }
+        Optional<String> streamed = awaitStreamed(audioSha256);
+        if (streamed.isPresent()) {
+            return streamed.get();
+        }
+        Optional<String> cached = lookup(audioSha256);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String text = asrService.transcribe(audioFile);
+        store(audioSha256, text);
+        return text;
+    }
+
+    // Non-blocking variant: a pending result is stored later by LroScheduler
+    public AsrSubmission submit(String audioSha256, Path audioFile) throws Exception {
+        if (audioSha256 != null && !audioSha256.isBlank()) {
+            Optional<String> streamed = awaitStreamed(audioSha256);
+            if (streamed.isPresent()) {
+                return AsrSubmission.completed(streamed.get());
+            }
+            Optional<String> cached = lookup(audioSha256);
+            if (cached.isPresent()) {
+                return AsrSubmission.completed(cached.get());
+            }
+        }
+        AsrSubmission submission = asrService.submit(audioFile);
+        if (!submission.isPending()) {
+            store(audioSha256, submission.transcript());
+        }
+        return submission;
+    }
+
+    // Recognition that started while the upload was arriving; stored once it completes. Jobs for the same
+    // audio on this node wait for it rather than starting a second recognition, and transcribe the file
+    // if it fails. The map is per process: a job picked up by another node finds no pending stream, does
+    // not wait, and goes straight to the persistent cache (which has the transcript if it already
+    // finished) and otherwise to ASR.
+    public void expect(String audioSha256, CompletableFuture<String> transcript) {
+        if (audioSha256 == null || audioSha256.isBlank()) return;
+        streaming.put(audioSha256, transcript);
+        transcript.orTimeout(streamAwaitMs, TimeUnit.MILLISECONDS).whenComplete((text, error) -> {
+            try {
+                if (error == null) {
+                    store(audioSha256, text);
+                } else {
+                    log.warn("Streaming transcript for audio {} failed: {}", audioSha256, error.toString());
+                }
+            } finally {
+                streaming.remove(audioSha256, transcript);
+            }
+        });
+    }
+
+    private Optional<String> awaitStreamed(String audioSha256) throws InterruptedException {
+        CompletableFuture<String> pending = streaming.get(audioSha256);
+        // Nothing streaming here (another node took the upload, or it already finished and was stored)
+        if (pending == null) return Optional.empty();
+        try {
+            String text = pending.get(streamAwaitMs, TimeUnit.MILLISECONDS);
+            if (text != null && !text.isBlank()) return Optional.of(text);
+        } catch (ExecutionException | TimeoutException e) {
+            log.info("No streaming transcript for audio {}; transcribing the stored file", audioSha256);
+        }
+        return Optional.empty();
+    }
+
+    public Optional<String> lookup(String audioSha256) throws Exception {
+        Optional<TranscriptCacheEntry> entry = resources.db(() -> repository.findByAudioSha256AndLanguageCodeAndProvider(
+                audioSha256, asrService.languageCode(), asrService.providerName()));
+        if (entry.isPresent()) {
+            hits.increment();
+            log.info("Transcript cache hit for audio {}", audioSha256);
+            return Optional.of(entry.get().getTranscriptText());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    // Forgets the transcript so the next run of this audio goes to ASR again
+    public void evict(String audioSha256) {
+        if (audioSha256 == null || audioSha256.isBlank()) return;
+        repository.findByAudioSha256AndLanguageCodeAndProvider(audioSha256, asrService.languageCode(), asrService.providerName())
+                .ifPresent(repository::delete);
+    }
+
+    public void store(String audioSha256, String transcriptText) {
+        // Blank results are more likely a decoding problem than silence; let the next run retry
+        if (audioSha256 == null || transcriptText == null || transcriptText.isBlank()) return;
+        TranscriptCacheEntry entry = new TranscriptCacheEntry();
+        entry.setAudioSha256(audioSha256);
+        entry.setLanguageCode(asrService.languageCode());
+        entry.setProvider(asrService.providerName());
+        entry.setTranscriptText(transcriptText);
+        try {
+            resources.db(() -> repository.save(entry));
+        } catch (DataIntegrityViolationException e) {
+            // Same audio transcribed concurrently by another job; its entry is equivalent
+            log.debug("Transcript cache entry for {} already stored", audioSha256);
+        } catch (Exception e) {
+            // Only costs another recognition if the same audio comes back
+            log.warn("Could not cache transcript for audio {}: {}", audioSha256, e.toString());
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+// Published by LroScheduler when a long-running recognition for a meeting has finished. Handled
+// synchronously: the operation stays tracked until the listeners return without throwing.
+public record TranscriptionCompletedEvent(Integer meetingId, String transcriptText) {}
@@ -0,0 +1,5 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+// Published by LroScheduler when a long-running recognition failed or timed out; attempt is that of
+// the meeting job which started the recognition
+public record TranscriptionFailedEvent(Integer meetingId, String reason, int attempt) {}
@@ -0,0 +1,230 @@
+package com.Unthinkable.Summarizer.service.asr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Energy / zero-crossing voice activity detection over a 16 kHz PCM16 stream. Chunks are cut in
+// pauses once they reach the minimum length, silence longer than the padding is dropped entirely,
+// and a chunk that hits the maximum length is cut at the quietest frame of its last few seconds.
+public class VadChunker implements PcmChunker {
+
+    private static final int FRAME_MS = 30;
+    private static final int FRAME_SAMPLES = FfmpegPcmSource.SAMPLE_RATE * FRAME_MS / 1000;
+    private static final int FRAME_BYTES = FRAME_SAMPLES * FfmpegPcmSource.BYTES_PER_SAMPLE;
+    private static final int HANGOVER_FRAMES = 8;
+    private static final int LOOKBACK_FRAMES = 5000 / FRAME_MS;
+    // Roughly -44 dBFS; quieter frames are never treated as speech
+    private static final double MIN_SPEECH_RMS = 200.0;
+    private static final double SPEECH_TO_NOISE = 3.0;
+    private static final int NOISE_BLOCK_FRAMES = 1000 / FRAME_MS;
+    private static final int NOISE_BLOCKS = 5;
+
+    public record Settings(int minChunkSeconds, int maxChunkSeconds, int pauseMs, int paddingMs) {}
+
+    private final InputStream pcm;
+    private final int minChunkFrames;
+    private final int maxChunkFrames;
+    private final int pauseFrames;
+    private final int paddingFrames;
+
+    private final byte[] buf;
+    private final double[] energies;
+    private int frames;
+    private int lastFrameBytes = FRAME_BYTES;
+    private long chunkStartSample = -1;
+    private boolean hasSpeech;
+    private int silenceRun;
+    private int hangover;
+    private final double[] blockMins = new double[NOISE_BLOCKS];
+    private int blockCursor;
+    private double blockMin = Double.MAX_VALUE;
+    private int blockFrames;
+    // Recent dropped silence, replayed in front of speech so word onsets are not clipped
+    private final ArrayDeque<byte[]> preRoll = new ArrayDeque<>();
+    private final ArrayDeque<PcmChunk> ready = new ArrayDeque<>();
+
+    private final byte[] frame = new byte[FRAME_BYTES];
+    private long streamSamples;
+    private long skippedSamples;
+    private int index;
+    private boolean eof;
+
+    public VadChunker(InputStream pcm, Settings settings) {
+        this.pcm = pcm;
+        this.maxChunkFrames = Math.max(1, settings.maxChunkSeconds() * 1000 / FRAME_MS);
+        this.minChunkFrames = Math.min(maxChunkFrames, Math.max(1, settings.minChunkSeconds() * 1000 / FRAME_MS));
+        this.pauseFrames = Math.max(1, settings.pauseMs() / FRAME_MS);
+        this.paddingFrames = Math.max(0, settings.paddingMs() / FRAME_MS);
+        this.buf = new byte[maxChunkFrames * FRAME_BYTES];
+        this.energies = new double[maxChunkFrames];
+        Arrays.fill(blockMins, Double.MAX_VALUE);
+    }
+
+    public double skippedSeconds() {
+        return skippedSamples / (double) FfmpegPcmSource.SAMPLE_RATE;
+    }
+
+    public double totalSeconds() {
+        return streamSamples / (double) FfmpegPcmSource.SAMPLE_RATE;
+    }
+
+    @Override
+    public PcmChunk next() throws IOException {
+        while (ready.isEmpty() && !eof) {
+            int n = pcm.readNBytes(frame, 0, FRAME_BYTES);
+            n -= n % FfmpegPcmSource.BYTES_PER_SAMPLE;
+            if (n <= 0) {
+                eof = true;
+                break;
+            }
+            long frameStart = streamSamples;
+            streamSamples += n / FfmpegPcmSource.BYTES_PER_SAMPLE;
+            double rms = rms(frame, n);
+
+            if (classify(frame, n, rms)) {
+                silenceRun = 0;
+                long preStart = frameStart - (long) preRoll.size() * FRAME_SAMPLES;
+                for (byte[] pre : preRoll) {
+                    skippedSamples -= FRAME_SAMPLES;
+                    appendOrCut(pre, FRAME_BYTES, 0.0, preStart);
+                    preStart += FRAME_SAMPLES;
+                }
+                preRoll.clear();
+                appendOrCut(frame, n, rms, frameStart);
+                hasSpeech = true;
+                continue;
+            }
+
+            silenceRun++;
+            if (hasSpeech && silenceRun <= paddingFrames) {
+                appendOrCut(frame, n, rms, frameStart);
+            } else {
+                // Beyond the trailing pad: drop, but remember it as possible pre-roll
+                skippedSamples += n / FfmpegPcmSource.BYTES_PER_SAMPLE;
+                if (paddingFrames > 0 && n == FRAME_BYTES) {
+                    if (preRoll.size() == paddingFrames) preRoll.removeFirst();
+                    preRoll.addLast(frame.clone());
+                }
+            }
+            if (hasSpeech && frames >= minChunkFrames && silenceRun >= pauseFrames) {
+                ready.add(emit(frames));
+            }
+        }
+        if (ready.isEmpty() && frames > 0) {
+            ready.add(emit(frames));
+        }
+        return ready.poll();
+    }
+
+    private void appendOrCut(byte[] data, int n, double rms, long frameStart) {
+        if (frames == maxChunkFrames) {
+            ready.add(emit(quietestCut()));
+        }
+        if (frames == 0) {
+            chunkStartSample = frameStart;
+        }
+        append(data, n, rms);
+    }
+
+    private void append(byte[] data, int n, double rms) {
+        System.arraycopy(data, 0, buf, frames * FRAME_BYTES, n);
+        energies[frames] = rms;
+        lastFrameBytes = n;
+        frames++;
+    }
+
+    // Frame boundary after the quietest frame in the lookback window
+    private int quietestCut() {
+        int from = Math.max(1, frames - LOOKBACK_FRAMES);
+        int best = frames - 1;
+        for (int i = frames - 1; i >= from; i--) {
+            if (energies[i] < energies[best]) best = i;
+        }
+        return best + 1;
+    }
+
+    private PcmChunk emit(int cutFrames) {
+        int cutBytes = cutFrames == frames ? bytesInBuffer() : cutFrames * FRAME_BYTES;
+        PcmChunk chunk = new PcmChunk(index++, chunkStartSample, Arrays.copyOf(buf, cutBytes));
+        int remaining = frames - cutFrames;
+        if (remaining > 0) {
+            System.arraycopy(buf, cutBytes, buf, 0, bytesInBuffer() - cutBytes);
+            System.arraycopy(energies, cutFrames, energies, 0, remaining);
+            chunkStartSample += cutBytes / FfmpegPcmSource.BYTES_PER_SAMPLE;
+        }
+        frames = remaining;
+        hasSpeech = remaining > 0;
+        if (remaining == 0) lastFrameBytes = FRAME_BYTES;
+        return chunk;
+    }
+
+    private int bytesInBuffer() {
+        return frames == 0 ? 0 : (frames - 1) * FRAME_BYTES + lastFrameBytes;
+    }
+
+    private boolean classify(byte[] data, int n, double rms) {
+        trackNoiseFloor(rms);
+        double threshold = Math.max(MIN_SPEECH_RMS, noiseFloor() * SPEECH_TO_NOISE);
+        boolean speech = rms > threshold;
+        if (!speech && rms > threshold / 2 && zeroCrossingRate(data, n) > 0.25) {
+            // Quiet but noisy frames are usually fricatives ("s", "f") rather than room tone
+            speech = true;
+        }
+        if (speech) {
+            hangover = HANGOVER_FRAMES;
+            return true;
+        }
+        if (hangover > 0) {
+            hangover--;
+            return true;
+        }
+        return false;
+    }
+
+    // Noise floor = minimum frame energy over the last few seconds; speech always has short dips
+    // between syllables, so this follows room tone and hum without creeping up during long talk
+    private void trackNoiseFloor(double rms) {
+        blockMin = Math.min(blockMin, rms);
+        if (++blockFrames == NOISE_BLOCK_FRAMES) {
+            blockMins[blockCursor] = blockMin;
+            blockCursor = (blockCursor + 1) % blockMins.length;
+            blockMin = Double.MAX_VALUE;
+            blockFrames = 0;
+        }
+    }
+
+    // Until the first block completes only the absolute threshold applies, so leading speech is kept
+    private double noiseFloor() {
+        double floor = Double.MAX_VALUE;
+        for (double m : blockMins) floor = Math.min(floor, m);
+        return floor == Double.MAX_VALUE ? 0.0 : floor;
+    }
+
+    private static double rms(byte[] data, int n) {
+        int samples = n / 2;
+        double sum = 0;
+        for (int i = 0; i < samples; i++) {
+            int s = sample(data, i);
+            sum += (double) s * s;
+        }
+        return Math.sqrt(sum / Math.max(1, samples));
+    }
+
+    private static double zeroCrossingRate(byte[] data, int n) {
+        int samples = n / 2;
+        int crossings = 0;
+        int prev = sample(data, 0);
+        for (int i = 1; i < samples; i++) {
+            int s = sample(data, i);
+            if ((s >= 0) != (prev >= 0)) crossings++;
+            prev = s;
+        }
+        return crossings / (double) Math.max(1, samples - 1);
+    }
+
+    private static int sample(byte[] data, int i) {
+        return (short) ((data[2 * i] & 0xff) | (data[2 * i + 1] << 8));
+    }
+}
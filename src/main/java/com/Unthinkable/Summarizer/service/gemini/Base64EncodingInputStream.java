@@ -0,0 +1,67 @@
+package com.Unthinkable.Summarizer.service.gemini;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Base64-encodes another stream as it is read, a few KB at a time, so an inline audio part can be
+// streamed into a request body without holding the file or its encoding in memory.
+public class Base64EncodingInputStream extends InputStream {
+
+    private static final int CHUNK = 3 * 16 * 1024;
+
+    private final InputStream source;
+    private final byte[] raw = new byte[CHUNK];
+    private byte[] encoded = new byte[0];
+    private int pos;
+    private boolean eof;
+
+    public Base64EncodingInputStream(InputStream source) {
+        this.source = source;
+    }
+
+    public static long encodedLength(long rawLength) {
+        return 4 * ((rawLength + 2) / 3);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) return -1;
+        return encoded[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!fill()) return -1;
+        int n = Math.min(len, encoded.length - pos);
+        System.arraycopy(encoded, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    // Padding may only appear at the very end, so every chunk but the last is a multiple of 3 bytes
+    private boolean fill() throws IOException {
+        if (pos < encoded.length) return true;
+        if (eof) return false;
+        int n = 0;
+        while (n < CHUNK) {
+            int r = source.read(raw, n, CHUNK - n);
+            if (r < 0) {
+                eof = true;
+                break;
+            }
+            n += r;
+        }
+        if (n == 0) return false;
+        encoded = Base64.getEncoder().encode(n == CHUNK ? raw : Arrays.copyOf(raw, n));
+        pos = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -1,28 +1,47 @@
 package com.Unthinkable.Summarizer.service.gemini;
 
+import com.Unthinkable.Summarizer.service.llm.IncrementalSummaryParser;
+import com.Unthinkable.Summarizer.service.llm.LlmProvider;
+import com.Unthinkable.Summarizer.service.llm.SummaryPrompts;
 import com.Unthinkable.Summarizer.service.llm.SummaryResult;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import com.Unthinkable.Summarizer.service.provider.ProviderTransport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.List;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
-public class GeminiClient {
+@RequiredArgsConstructor
+public class GeminiClient implements LlmProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiClient.class);
+    private static final String AUDIO_PLACEHOLDER = "@@AUDIO_BASE64@@";
 
     private final ObjectMapper mapper = new ObjectMapper();
+    private final ProviderTransport transport;
 
     @Value("${app.gemini.api-key:}")
     private String apiKey;
@@ -30,42 +49,226 @@ public class GeminiClient {
     @Value("${app.gemini.model:gemini-2.0-flash}")
     private String model;
 
+    @Value("${app.gemini.base-url:https://generativelanguage.googleapis.com}")
+    private String baseUrl;
+
+    // Audio up to this size is sent inline (base64); larger files go through the Files API
+    @Value("${app.gemini.inline-max-bytes:10485760}")
+    private long inlineMaxBytes;
+
+    @Value("${app.gemini.upload-max-resumes:3}")
+    private int uploadMaxResumes;
+
+    @Override
+    public String name() {
+        return "gemini";
+    }
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
     public boolean isConfigured() {
         return apiKey != null && !apiKey.isBlank();
     }
 
+    // Small files go inline, base64-encoded while the request body is being sent; larger ones are
+    // uploaded through the Files API (resumable) and referenced by URI. Either way the audio is read
+    // from disk in small pieces and never held in memory as a whole.
     public String transcribe(Path audioPath) throws Exception {
         if (!isConfigured()) throw new IllegalStateException("Gemini API key not configured");
-        byte[] audioBytes = Files.readAllBytes(audioPath);
-        String b64 = Base64.getEncoder().encodeToString(audioBytes);
         String mime = guessMime(audioPath.getFileName().toString());
+        long size = Files.size(audioPath);
+        if (size <= inlineMaxBytes) {
+            return generateTranscript(inlineAudioBody(audioPath, mime, size));
+        }
+        UploadedFile file = uploadFile(audioPath, mime, size);
+        try {
+            ObjectNode fileData = mapper.createObjectNode();
+            fileData.put("mime_type", mime);
+            fileData.put("file_uri", file.uri());
+            return generateTranscript(HttpRequest.BodyPublishers.ofString(
+                    mapper.writeValueAsString(transcribeBody("file_data", fileData))));
+        } finally {
+            deleteFile(file.name());
+        }
+    }
 
+    private String generateTranscript(HttpRequest.BodyPublisher body) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/v1beta/models/" + model + ":generateContent?key=" + apiKey))
+                .timeout(Duration.ofSeconds(300))
+                .header("Content-Type", "application/json")
+                .POST(body)
+                .build();
+        HttpResponse<String> resp = transport.send("gemini", "transcribe", req);
+        if (resp.statusCode() >= 300) {
+            throw new IllegalStateException("Gemini ASR failed: " + resp.statusCode() + " - " + resp.body());
+        }
+        return SummaryResultDecoder.textAt(resp.body(), "candidates", "0", "content", "parts", "0", "text");
+    }
+
+    private ObjectNode transcribeBody(String audioPartName, ObjectNode audioPart) {
         ObjectNode root = mapper.createObjectNode();
         ArrayNode contents = root.putArray("contents");
         ObjectNode user = mapper.createObjectNode();
         user.put("role", "user");
         ArrayNode parts = user.putArray("parts");
         parts.add(mapper.createObjectNode().put("text", "Transcribe this audio. Return only the transcript text."));
+        parts.add(mapper.createObjectNode().set(audioPartName, audioPart));
+        contents.add(user);
+        return root;
+    }
+
+    // The JSON around the audio is serialized once; the base64 data in between is streamed from the file
+    private HttpRequest.BodyPublisher inlineAudioBody(Path audio, String mime, long size) throws Exception {
         ObjectNode inline = mapper.createObjectNode();
         inline.put("mime_type", mime);
-        inline.put("data", b64);
-        parts.add(mapper.createObjectNode().set("inline_data", inline));
-        contents.add(user);
+        inline.put("data", AUDIO_PLACEHOLDER);
+        String json = mapper.writeValueAsString(transcribeBody("inline_data", inline));
+        int at = json.indexOf(AUDIO_PLACEHOLDER);
+        HttpRequest.BodyPublisher data = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> new Base64EncodingInputStream(openAt(audio, 0))),
+                Base64EncodingInputStream.encodedLength(size));
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(json.substring(0, at)),
+                data,
+                HttpRequest.BodyPublishers.ofString(json.substring(at + AUDIO_PLACEHOLDER.length())));
+    }
 
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey;
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(120))
+    private record UploadedFile(String name, String uri) {}
+
+    // Files API resumable upload: start a session, send the bytes, and if the connection drops ask the
+    // server how much it has and continue from there
+    private UploadedFile uploadFile(Path audio, String mime, long size) throws Exception {
+        ObjectNode meta = mapper.createObjectNode();
+        meta.putObject("file").put("display_name", audio.getFileName().toString());
+        HttpRequest startReq = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/upload/v1beta/files?key=" + apiKey))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-Goog-Upload-Protocol", "resumable")
+                .header("X-Goog-Upload-Command", "start")
+                .header("X-Goog-Upload-Header-Content-Length", Long.toString(size))
+                .header("X-Goog-Upload-Header-Content-Type", mime)
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(root)))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(meta)))
+                .build();
+        HttpResponse<String> started = transport.send("gemini", "files", startReq);
+        String uploadUrl = started.headers().firstValue("X-Goog-Upload-URL").orElse(null);
+        if (started.statusCode() >= 300 || uploadUrl == null) {
+            throw new IllegalStateException("Gemini file upload could not start: " + started.statusCode() + " - " + started.body());
+        }
+
+        long offset = 0;
+        for (int resumes = 0; ; resumes++) {
+            String failure;
+            try {
+                HttpRequest put = HttpRequest.newBuilder()
+                        .uri(URI.create(uploadUrl))
+                        .timeout(Duration.ofMinutes(10))
+                        .header("X-Goog-Upload-Command", "upload, finalize")
+                        .header("X-Goog-Upload-Offset", Long.toString(offset))
+                        .POST(HttpRequest.BodyPublishers.fromPublisher(
+                                HttpRequest.BodyPublishers.ofInputStream(openAtSupplier(audio, offset)), size - offset))
+                        .build();
+                HttpResponse<String> resp = transport.sendOnce("gemini", "upload", put, HttpResponse.BodyHandlers.ofString());
+                if (resp.statusCode() < 300) {
+                    return waitUntilActive(uploadedFile(resp.body()));
+                }
+                if (resp.statusCode() < 500 && resp.statusCode() != 408 && resp.statusCode() != 429) {
+                    throw new IllegalStateException("Gemini file upload failed: " + resp.statusCode() + " - " + resp.body());
+                }
+                failure = "HTTP " + resp.statusCode();
+            } catch (IOException e) {
+                failure = e.toString();
+            }
+            if (resumes >= uploadMaxResumes) {
+                throw new IllegalStateException("Gemini file upload failed after " + resumes + " resume(s): " + failure);
+            }
+            HttpResponse<String> status = queryUpload(uploadUrl);
+            if ("final".equalsIgnoreCase(status.headers().firstValue("X-Goog-Upload-Status").orElse(""))) {
+                return waitUntilActive(uploadedFile(status.body()));
+            }
+            offset = status.headers().firstValue("X-Goog-Upload-Size-Received").map(Long::parseLong).orElse(0L);
+            log.warn("Gemini upload of {} interrupted ({}); resuming at byte {} of {}", audio.getFileName(), failure, offset, size);
+        }
+    }
+
+    private HttpResponse<String> queryUpload(String uploadUrl) throws Exception {
+        HttpRequest query = HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-Goog-Upload-Command", "query")
+                .POST(HttpRequest.BodyPublishers.noBody())
                 .build();
-        HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> resp = transport.send("gemini", "files", query);
         if (resp.statusCode() >= 300) {
-            throw new IllegalStateException("Gemini ASR failed: " + resp.statusCode() + " - " + resp.body());
+            throw new IllegalStateException("Gemini upload status query failed: " + resp.statusCode() + " - " + resp.body());
+        }
+        return resp;
+    }
+
+    private UploadedFile uploadedFile(String body) {
+        String name = SummaryResultDecoder.textAt(body, "file", "name");
+        String uri = SummaryResultDecoder.textAt(body, "file", "uri");
+        if (name.isEmpty() || uri.isEmpty()) {
+            throw new IllegalStateException("Gemini file upload returned no file: " + body);
+        }
+        return new UploadedFile(name, uri);
+    }
+
+    // Audio is usually ACTIVE right away; larger files may be PROCESSING for a few seconds
+    private UploadedFile waitUntilActive(UploadedFile file) throws Exception {
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (true) {
+            HttpRequest get = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/v1beta/" + file.name() + "?key=" + apiKey))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            HttpResponse<String> resp = transport.send("gemini", "files", get);
+            String state = resp.statusCode() < 300 ? SummaryResultDecoder.textAt(resp.body(), "state") : "";
+            if ("ACTIVE".equals(state)) return file;
+            if ("FAILED".equals(state) || resp.statusCode() >= 300) {
+                deleteFile(file.name());
+                throw new IllegalStateException("Gemini could not process uploaded audio " + file.name() + ": " + resp.body());
+            }
+            if (System.currentTimeMillis() > deadline) {
+                deleteFile(file.name());
+                throw new IllegalStateException("Gemini still processing uploaded audio " + file.name() + " after 120s");
+            }
+            Thread.sleep(1000);
+        }
+    }
+
+    // Uploaded files expire after 48h anyway; deleting right away keeps the project quota free
+    private void deleteFile(String name) {
+        try {
+            HttpRequest delete = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/v1beta/" + name + "?key=" + apiKey))
+                    .timeout(Duration.ofSeconds(30))
+                    .DELETE()
+                    .build();
+            transport.send("gemini", "files", delete);
+        } catch (Exception e) {
+            log.debug("Could not delete Gemini file {}: {}", name, e.toString());
+        }
+    }
+
+    private static Supplier<InputStream> openAtSupplier(Path file, long offset) {
+        return () -> openAt(file, offset);
+    }
+
+    private static InputStream openAt(Path file, long offset) {
+        try {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+            ch.position(offset);
+            return Channels.newInputStream(ch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        JsonNode node = mapper.readTree(resp.body());
-        String text = node.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText("");
-        return text;
     }
 
     private String guessMime(String filename) {
@@ -79,50 +282,71 @@ public class GeminiClient {
     }
 
     public SummaryResult summarize(String transcript) throws Exception {
+        return summarize(SummaryPrompts.SYSTEM, SummaryPrompts.whole(transcript));
+    }
+
+    @Override
+    public SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception {
         if (!isConfigured()) throw new IllegalStateException("Gemini API key not configured");
-        String systemPrompt = "You are an expert meeting assistant. Return a strict JSON object with keys: summaryText (string), keyDecisions (string), actionItems (array of objects with description, assignedTo, dueDate in YYYY-MM-DD or null).";
-        ObjectNode root = mapper.createObjectNode();
-        ArrayNode contents = root.putArray("contents");
-        ObjectNode user = mapper.createObjectNode();
-        user.put("role", "user");
-        ArrayNode parts = user.putArray("parts");
-        parts.add(mapper.createObjectNode().put("text", systemPrompt + "\n\nSummarize this meeting transcript into key decisions and action items. Transcript:\n\n" + transcript));
-        contents.add(user);
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey;
+        ObjectNode root = summarizeBody(systemPrompt, userPrompt);
+        String url = baseUrl + "/v1beta/models/" + model + ":generateContent?key=" + apiKey;
         HttpRequest req = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .timeout(Duration.ofSeconds(120))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(root)))
                 .build();
-        HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> resp = transport.send("gemini", "summarize", req);
         if (resp.statusCode() >= 300) {
             throw new IllegalStateException("Gemini summarize failed: " + resp.statusCode() + " - " + resp.body());
         }
-        String content = mapper.readTree(resp.body())
-                .path("candidates").path(0).path("content").path("parts").path(0).path("text").asText("");
-        JsonNode json;
-        try {
-            json = mapper.readTree(content);
-        } catch (Exception e) {
-            String stripped = content.replaceAll("(?s)```json|```", "").trim();
-            json = mapper.readTree(stripped);
-        }
-        SummaryResult result = new SummaryResult();
-        result.setSummaryText(json.path("summaryText").asText(""));
-        result.setKeyDecisions(json.path("keyDecisions").asText(""));
-        List<SummaryResult.ActionItemSuggestion> items = new ArrayList<>();
-        for (JsonNode it : json.path("actionItems")) {
-            SummaryResult.ActionItemSuggestion s = new SummaryResult.ActionItemSuggestion();
-            s.setDescription(it.path("description").asText(""));
-            s.setAssignedTo(it.path("assignedTo").asText(null));
-            String due = it.path("dueDate").asText(null);
-            if (due != null && !due.isBlank() && due.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                s.setDueDate(java.time.LocalDate.parse(due));
+        return SummaryResultDecoder.decode(
+                SummaryResultDecoder.textAt(resp.body(), "candidates", "0", "content", "parts", "0", "text"));
+    }
+
+    // Same request over server-sent events: each event carries the next piece of the JSON answer,
+    // which is parsed as it arrives and handed to onPartial. The request timeout only bounds the
+    // wait for the first byte, so long generations that keep streaming are not cut off.
+    @Override
+    public SummaryResult summarizeStreaming(String systemPrompt, String userPrompt, Consumer<SummaryResult> onPartial) throws Exception {
+        if (!isConfigured()) throw new IllegalStateException("Gemini API key not configured");
+        String url = baseUrl + "/v1beta/models/" + model + ":streamGenerateContent?alt=sse&key=" + apiKey;
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(summarizeBody(systemPrompt, userPrompt))))
+                .build();
+        HttpResponse<Stream<String>> resp = transport.send("gemini", "summarize", req, HttpResponse.BodyHandlers.ofLines());
+        IncrementalSummaryParser parser = new IncrementalSummaryParser();
+        try (Stream<String> lines = resp.body()) {
+            if (resp.statusCode() >= 300) {
+                throw new IllegalStateException("Gemini summarize failed: " + resp.statusCode() + " - "
+                        + lines.collect(Collectors.joining("\n")));
+            }
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                String line = it.next();
+                if (!line.startsWith("data:")) continue;
+                String data = line.substring(5).trim();
+                if (data.isEmpty()) continue;
+                String delta = SummaryResultDecoder.textAt(data, "candidates", "0", "content", "parts", "0", "text");
+                SummaryResult partial = parser.feed(delta);
+                if (partial != null) onPartial.accept(partial);
             }
-            items.add(s);
         }
-        result.setActionItems(items);
-        return result;
+        return SummaryResultDecoder.decode(parser.text());
+    }
+
+    private ObjectNode summarizeBody(String systemPrompt, String userPrompt) {
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode contents = root.putArray("contents");
+        ObjectNode user = mapper.createObjectNode();
+        user.put("role", "user");
+        ArrayNode parts = user.putArray("parts");
+        parts.add(mapper.createObjectNode().put("text", systemPrompt + "\n\n" + userPrompt));
+        contents.add(user);
+        return root;
     }
 }
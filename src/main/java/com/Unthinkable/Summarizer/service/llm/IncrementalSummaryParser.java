@@ -0,0 +1,246 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reads a summary JSON object that is still being generated. Each feed() hands only the new bytes to
+// a non-blocking Jackson parser, so the cost per delta is the size of the delta. Completed values go
+// through SummaryResultDecoder's field handlers, the same ones that decode the final answer: top-level
+// fields once their value is closed, action items one by one as each element closes. The one thing
+// Jackson cannot report is a string that has not ended yet, so summaryText and keyDecisions strings
+// are previewed from the raw bytes as far as they go.
+public class IncrementalSummaryParser {
+
+    private final StringBuilder text = new StringBuilder();
+    private final JsonParser parser;
+    private final SummaryResult result = new SummaryResult();
+    private SummaryResult last = new SummaryResult();
+
+    private byte[] bytes = new byte[1024];
+    private int length;
+    private int rootStart = -1;
+    private boolean done;
+
+    private int depth;
+    private String field;
+    private TokenBuffer value;
+    private boolean inItems;
+    private TokenBuffer item;
+
+    private int previewPos = -1;
+    private char quote;
+    private final StringBuilder preview = new StringBuilder();
+
+    public IncrementalSummaryParser() {
+        try {
+            parser = SummaryResultDecoder.nonBlockingParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns a new snapshot, or null when the delta changed nothing visible
+    public SummaryResult feed(String delta) {
+        if (delta == null || delta.isEmpty()) return null;
+        text.append(delta);
+        if (done) return null;
+        int from = append(delta.getBytes(StandardCharsets.UTF_8));
+        if (rootStart < 0) {
+            // Skips a ```json fence or any other preamble
+            while (from < length && bytes[from] != '{') from++;
+            if (from == length) return null;
+            rootStart = from;
+        }
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, from, length);
+            JsonToken t;
+            while (!done && (t = parser.nextToken()) != JsonToken.NOT_AVAILABLE && t != null) {
+                onToken(t);
+            }
+        } catch (IOException e) {
+            // Not JSON we understand; keep what we have and let the final decode report it
+            done = true;
+        }
+        if (previewPos >= 0) scanPreview();
+        SummaryResult next = snapshot();
+        if (next.equals(last)) return null;
+        last = next;
+        return copy(next);
+    }
+
+    public SummaryResult current() {
+        return copy(last);
+    }
+
+    public String text() {
+        return text.toString();
+    }
+
+    private void onToken(JsonToken t) throws IOException {
+        if (depth == 0) {
+            // The root object
+            depth = 1;
+            return;
+        }
+        if (depth == 1 && t == JsonToken.END_OBJECT) {
+            depth = 0;
+            done = true;
+            return;
+        }
+        if (depth == 1 && t == JsonToken.FIELD_NAME) {
+            field = parser.currentName();
+            if (field.equals("summaryText") || field.equals("keyDecisions")) {
+                previewPos = rootStart + (int) parser.currentLocation().getByteOffset();
+                quote = 0;
+                preview.setLength(0);
+            }
+            return;
+        }
+        if (depth == 1) {
+            previewPos = -1;
+            if (field.equals("actionItems") && t == JsonToken.START_ARRAY) {
+                inItems = true;
+                result.setActionItems(new ArrayList<>());
+                depth = 2;
+            } else if (t.isStructStart()) {
+                value = new TokenBuffer(null, false);
+                value.copyCurrentEvent(parser);
+                depth = 2;
+            } else {
+                SummaryResultDecoder.readField(parser, field, result);
+            }
+            return;
+        }
+        if (inItems) {
+            onItemToken(t);
+            return;
+        }
+        value.copyCurrentEvent(parser);
+        if (t.isStructStart()) depth++;
+        if (t.isStructEnd() && --depth == 1) {
+            SummaryResultDecoder.readField(replay(value), field, result);
+            value = null;
+        }
+    }
+
+    private void onItemToken(JsonToken t) throws IOException {
+        if (depth == 2 && t == JsonToken.END_ARRAY) {
+            inItems = false;
+            depth = 1;
+            return;
+        }
+        if (depth == 2 && !t.isStructStart()) {
+            add(SummaryResultDecoder.readActionItem(parser));
+            return;
+        }
+        if (depth == 2) item = new TokenBuffer(null, false);
+        item.copyCurrentEvent(parser);
+        if (t.isStructStart()) depth++;
+        if (t.isStructEnd() && --depth == 2) {
+            add(SummaryResultDecoder.readActionItem(replay(item)));
+            item = null;
+        }
+    }
+
+    private void add(SummaryResult.ActionItemSuggestion suggestion) {
+        if (suggestion != null) result.getActionItems().add(suggestion);
+    }
+
+    private static JsonParser replay(TokenBuffer buffer) throws IOException {
+        JsonParser p = buffer.asParser();
+        p.nextToken();
+        return p;
+    }
+
+    // Decodes the newly arrived part of a string value that is still open. Stops before an escape or a
+    // UTF-8 sequence that is cut off, so the preview only ever grows.
+    private void scanPreview() {
+        int i = previewPos;
+        while (i < length) {
+            byte b = bytes[i];
+            if (quote == 0) {
+                if (b == ':' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    i++;
+                    continue;
+                }
+                if (b != '"' && b != '\'') {
+                    // An array or a literal: shown once it is complete
+                    previewPos = -1;
+                    return;
+                }
+                quote = (char) b;
+                i++;
+                continue;
+            }
+            if (b == quote) {
+                // Closed; the parser has the whole string from here
+                break;
+            }
+            if (b == '\\') {
+                if (i + 1 >= length) break;
+                byte e = bytes[i + 1];
+                if (e == 'u') {
+                    if (i + 6 > length) break;
+                    try {
+                        preview.append((char) Integer.parseInt(new String(bytes, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException ex) {
+                        preview.append('?');
+                    }
+                    i += 6;
+                    continue;
+                }
+                preview.append(switch (e) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'r' -> '\r';
+                    case 'b' -> '\b';
+                    case 'f' -> '\f';
+                    default -> (char) e;
+                });
+                i += 2;
+                continue;
+            }
+            int n = b >= 0 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : 4;
+            if (i + n > length) break;
+            preview.append(new String(bytes, i, n, StandardCharsets.UTF_8));
+            i += n;
+        }
+        previewPos = i;
+    }
+
+    private SummaryResult snapshot() {
+        SummaryResult next = copy(result);
+        if (previewPos >= 0 && quote != 0) {
+            if (field.equals("summaryText")) next.setSummaryText(preview.toString());
+            else next.setKeyDecisions(preview.toString());
+        }
+        return next;
+    }
+
+    private int append(byte[] delta) {
+        if (length + delta.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + delta.length));
+        }
+        System.arraycopy(delta, 0, bytes, length, delta.length);
+        int from = length;
+        length += delta.length;
+        return from;
+    }
+
+    private static SummaryResult copy(SummaryResult r) {
+        List<SummaryResult.ActionItemSuggestion> items = new ArrayList<>();
+        for (SummaryResult.ActionItemSuggestion s : r.getActionItems()) {
+            items.add(new SummaryResult.ActionItemSuggestion(s.getDescription(), s.getAssignedTo(), s.getDueDate()));
+        }
+        return new SummaryResult(r.getSummaryText(), r.getKeyDecisions(), items);
+    }
+}
@@ -1,24 +1,69 @@
 package com.Unthinkable.Summarizer.service.llm;
 
-import com.Unthinkable.Summarizer.service.gemini.GeminiClient;
+import com.Unthinkable.Summarizer.service.ollama.OllamaClient;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 @Service
 @RequiredArgsConstructor
 public class LlmFacade implements LlmService {
 
-    private final GeminiClient geminiClient;
+    private static final Logger log = LoggerFactory.getLogger(LlmFacade.class);
+
+    private final LlmRouter router;
+    private final OllamaClient ollamaClient;
+    private final MapReduceSummarizer mapReduceSummarizer;
+    private final SummaryCache summaryCache;
 
-    @Value("${app.llm.provider:gemini}")
-    private String provider;
+    @Value("${app.llm.stream.enabled:true}")
+    private boolean streamEnabled;
+
+    @Value("${app.ollama.warm-up:true}")
+    private boolean ollamaWarmUp;
 
     @Override
     public SummaryResult summarize(String transcript) throws Exception {
-        return switch (provider.toLowerCase()) {
-            case "gemini" -> geminiClient.summarize(transcript);
-            default -> throw new IllegalStateException("Unknown LLM provider: " + provider + ". Use 'gemini' or 'ollama'.");
-        };
+        return summarize(transcript, partial -> {});
+    }
+
+    @Override
+    public SummaryResult summarize(String transcript, Consumer<SummaryResult> onPartial) throws Exception {
+        Optional<SummaryResult> cached = summaryCache.lookup(transcript, router.providers());
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        // Cached under whichever provider produced the final answer
+        AtomicReference<LlmProvider> answeredBy = new AtomicReference<>();
+        SummaryResult result = mapReduceSummarizer.summarize(transcript,
+                (system, user) -> router.summarize(system, user, null).result(),
+                (system, user) -> {
+                    LlmRouter.Routed routed = router.summarize(system, user, streamEnabled ? onPartial : null);
+                    answeredBy.set(routed.provider());
+                    return routed.result();
+                });
+        summaryCache.store(transcript, answeredBy.get(), result);
+        return result;
+    }
+
+    // Load the local model at startup so the first meeting doesn't wait for it
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpLocalModel() {
+        if (!ollamaWarmUp || router.providers().stream().noneMatch(p -> p == ollamaClient)) return;
+        try {
+            ollamaClient.warmUp();
+        } catch (Exception e) {
+            log.warn("Ollama warm-up failed: {}", e.toString());
+        }
     }
 }
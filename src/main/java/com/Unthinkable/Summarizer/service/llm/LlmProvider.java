@@ -0,0 +1,21 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import java.util.function.Consumer;
+
+// One summarization backend as seen by LlmRouter
+public interface LlmProvider {
+
+    // Routing and cache key name, as listed in app.llm.providers
+    String name();
+
+    String model();
+
+    boolean isConfigured();
+
+    SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception;
+
+    // Providers that can stream report partial results through onPartial; others just answer
+    default SummaryResult summarizeStreaming(String systemPrompt, String userPrompt, Consumer<SummaryResult> onPartial) throws Exception {
+        return summarize(systemPrompt, userPrompt);
+    }
+}
@@ -0,0 +1,229 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Sends each summarization call to the healthiest of the providers listed in app.llm.providers:
+// measured healthy providers first (lowest p50 scaled by error rate), then unmeasured ones in listed
+// order, then degraded ones. A failed call moves on to the next provider. With hedging on, a call
+// still running after the provider's p95 gets a second request on the next provider; the first
+// answer wins and the other is cancelled.
+@Component
+public class LlmRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmRouter.class);
+
+    public record Routed(SummaryResult result, LlmProvider provider) {}
+
+    private final List<LlmProvider> providers = new ArrayList<>();
+    private final Map<String, ProviderStats> stats = new LinkedHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int minSamples;
+    private final double maxErrorRate;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayMs;
+    private final ExecutorService executor;
+
+    public LlmRouter(List<LlmProvider> available,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.llm.providers:${app.llm.provider:gemini}}") String names,
+                     @Value("${app.llm.router.window:100}") int window,
+                     @Value("${app.llm.router.stats-ttl-ms:300000}") long statsTtlMs,
+                     @Value("${app.llm.router.min-samples:5}") int minSamples,
+                     @Value("${app.llm.router.max-error-rate:0.5}") double maxErrorRate,
+                     @Value("${app.llm.router.hedge.enabled:false}") boolean hedgeEnabled,
+                     @Value("${app.llm.router.hedge.min-delay-ms:2000}") long hedgeMinDelayMs) {
+        this.meterRegistry = meterRegistry;
+        this.minSamples = Math.max(1, minSamples);
+        this.maxErrorRate = maxErrorRate;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayMs = Math.max(0, hedgeMinDelayMs);
+        for (String raw : names.split(",")) {
+            String name = raw.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty() || stats.containsKey(name)) continue;
+            LlmProvider provider = available.stream().filter(p -> p.name().equals(name)).findFirst().orElse(null);
+            if (provider == null) {
+                log.warn("Ignoring unknown LLM provider '{}'", name);
+                continue;
+            }
+            ProviderStats s = new ProviderStats(window, statsTtlMs);
+            providers.add(provider);
+            stats.put(name, s);
+            Gauge.builder("llm.provider.latency.p50", s, x -> x.snapshot(System.currentTimeMillis()).p50Ms())
+                    .tag("provider", name).baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("llm.provider.latency.p95", s, x -> x.snapshot(System.currentTimeMillis()).p95Ms())
+                    .tag("provider", name).baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("llm.provider.error.rate", s, x -> x.snapshot(System.currentTimeMillis()).errorRate())
+                    .tag("provider", name).register(meterRegistry);
+        }
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "llm-route-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Providers in listed order
+    public List<LlmProvider> providers() {
+        return List.copyOf(providers);
+    }
+
+    public Routed summarize(String systemPrompt, String userPrompt, Consumer<SummaryResult> onPartial) throws Exception {
+        List<LlmProvider> order = ordered();
+        decision(order.get(0), "primary");
+        if (hedgeEnabled && order.size() > 1) {
+            return hedged(order, systemPrompt, userPrompt, onPartial);
+        }
+        Exception last = null;
+        for (int i = 0; i < order.size(); i++) {
+            try {
+                return call(order.get(i), systemPrompt, userPrompt, onPartial);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                last = e;
+                if (i + 1 < order.size()) {
+                    log.warn("LLM provider {} failed ({}); failing over to {}", order.get(i).name(), e.toString(), order.get(i + 1).name());
+                    decision(order.get(i + 1), "failover");
+                }
+            }
+        }
+        throw last;
+    }
+
+    List<LlmProvider> ordered() {
+        if (providers.isEmpty()) {
+            throw new IllegalStateException("No known LLM provider configured in app.llm.providers. Use 'gemini', 'openai' or 'ollama'.");
+        }
+        List<LlmProvider> configured = new ArrayList<>(providers.stream().filter(LlmProvider::isConfigured).toList());
+        if (configured.isEmpty()) {
+            // Let the first provider report what is missing
+            return List.of(providers.get(0));
+        }
+        long now = System.currentTimeMillis();
+        Map<LlmProvider, double[]> keys = new LinkedHashMap<>();
+        for (LlmProvider p : configured) {
+            ProviderStats.Snapshot s = stats.get(p.name()).snapshot(now);
+            int tier;
+            double score = 0;
+            if (s.samples() < minSamples) {
+                tier = 1;
+            } else if (s.errorRate() >= maxErrorRate) {
+                tier = 2;
+            } else {
+                tier = 0;
+                // Expected wait for a good answer if failures cost about as much as successes
+                score = s.p50Ms() / Math.max(0.05, 1.0 - s.errorRate());
+            }
+            keys.put(p, new double[]{tier, score});
+        }
+        // Stable sort, so ties keep the listed order
+        configured.sort(Comparator.<LlmProvider>comparingDouble(p -> keys.get(p)[0]).thenComparingDouble(p -> keys.get(p)[1]));
+        return configured;
+    }
+
+    private Routed hedged(List<LlmProvider> order, String systemPrompt, String userPrompt,
+                          Consumer<SummaryResult> onPartial) throws Exception {
+        ExecutorCompletionService<Routed> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Routed>> started = new ArrayList<>();
+        started.add(completion.submit(() -> call(order.get(0), systemPrompt, userPrompt, onPartial)));
+        int next = 1;
+        int finished = 0;
+        boolean hedged = false;
+        Exception last = null;
+        try {
+            while (true) {
+                Future<Routed> done;
+                if (!hedged && next < order.size()) {
+                    done = completion.poll(hedgeDelayMs(order.get(next - 1)), TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        hedged = true;
+                        LlmProvider backup = order.get(next++);
+                        log.info("LLM call on {} passed its p95; hedging on {}", order.get(next - 2).name(), backup.name());
+                        decision(backup, "hedge");
+                        // Only the first request streams partial results
+                        started.add(completion.submit(() -> call(backup, systemPrompt, userPrompt, null)));
+                        continue;
+                    }
+                } else {
+                    done = completion.take();
+                }
+                finished++;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    last = e.getCause() instanceof Exception cause ? cause : e;
+                    if (finished == started.size()) {
+                        if (next >= order.size()) throw last;
+                        LlmProvider failover = order.get(next++);
+                        log.warn("LLM call failed ({}); failing over to {}", last.toString(), failover.name());
+                        decision(failover, "failover");
+                        started.add(completion.submit(() -> call(failover, systemPrompt, userPrompt, onPartial)));
+                    }
+                }
+            }
+        } finally {
+            started.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private long hedgeDelayMs(LlmProvider provider) {
+        ProviderStats.Snapshot s = stats.get(provider.name()).snapshot(System.currentTimeMillis());
+        return s.samples() < minSamples ? hedgeMinDelayMs : Math.max(hedgeMinDelayMs, s.p95Ms());
+    }
+
+    private Routed call(LlmProvider provider, String systemPrompt, String userPrompt,
+                        Consumer<SummaryResult> onPartial) throws Exception {
+        long start = System.nanoTime();
+        try {
+            SummaryResult result = onPartial == null
+                    ? provider.summarize(systemPrompt, userPrompt)
+                    : provider.summarizeStreaming(systemPrompt, userPrompt, onPartial);
+            record(provider, start, true);
+            return new Routed(result, provider);
+        } catch (InterruptedException e) {
+            // Lost a hedge race (or shutting down); says nothing about the provider
+            throw e;
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) throw e;
+            record(provider, start, false);
+            throw e;
+        }
+    }
+
+    private void record(LlmProvider provider, long startNanos, boolean ok) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        stats.get(provider.name()).record(ms, ok, System.currentTimeMillis());
+        meterRegistry.counter("llm.router.calls", "provider", provider.name(), "outcome", ok ? "success" : "failure").increment();
+    }
+
+    private void decision(LlmProvider provider, String kind) {
+        meterRegistry.counter("llm.router.decisions", "provider", provider.name(), "decision", kind).increment();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
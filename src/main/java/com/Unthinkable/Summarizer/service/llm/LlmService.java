@@ -1,6 +1,12 @@
 package com.Unthinkable.Summarizer.service.llm;
 
+import java.util.function.Consumer;
+
 public interface LlmService {
     SummaryResult summarize(String transcript) throws Exception;
-}
 
+    // onPartial receives growing snapshots while the provider streams its answer (if it can)
+    default SummaryResult summarize(String transcript, Consumer<SummaryResult> onPartial) throws Exception {
+        return summarize(transcript);
+    }
+}
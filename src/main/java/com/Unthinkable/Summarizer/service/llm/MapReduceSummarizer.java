@@ -0,0 +1,168 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Summarizes transcripts that exceed one prompt by splitting them into token-budgeted windows,
+// summarizing the windows in parallel (capped across all meetings), and merging the partial
+// results in one reduce call. Latency follows the slowest window instead of the transcript length.
+@Component
+public class MapReduceSummarizer {
+
+    private static final Logger log = LoggerFactory.getLogger(MapReduceSummarizer.class);
+
+    @FunctionalInterface
+    public interface PromptSummarizer {
+        SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int singleCallMaxTokens;
+    private final int windowTokens;
+    private final ExecutorService executor;
+
+    public MapReduceSummarizer(@Value("${app.llm.map-reduce.single-call-max-tokens:12000}") int singleCallMaxTokens,
+                               @Value("${app.llm.map-reduce.window-tokens:6000}") int windowTokens,
+                               @Value("${app.llm.map-reduce.max-parallel:4}") int maxParallel) {
+        this.windowTokens = Math.max(500, windowTokens);
+        this.singleCallMaxTokens = Math.max(this.windowTokens, singleCallMaxTokens);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxParallel), r -> {
+            Thread t = new Thread(r, "llm-map-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public SummaryResult summarize(String transcript, PromptSummarizer llm) throws Exception {
+        return summarize(transcript, llm, llm);
+    }
+
+    // finalLlm makes the call whose answer is returned (the single call, or the reduce), e.g. a streaming one
+    public SummaryResult summarize(String transcript, PromptSummarizer llm, PromptSummarizer finalLlm) throws Exception {
+        if (TokenEstimator.estimate(transcript) <= singleCallMaxTokens) {
+            return finalLlm.summarize(SummaryPrompts.SYSTEM, SummaryPrompts.whole(transcript));
+        }
+        List<String> windows = windows(transcript, windowTokens);
+        log.info("Summarizing ~{} tokens in {} windows", TokenEstimator.estimate(transcript), windows.size());
+
+        List<Future<SummaryResult>> futures = new ArrayList<>();
+        for (int i = 0; i < windows.size(); i++) {
+            String prompt = SummaryPrompts.window(i + 1, windows.size(), windows.get(i));
+            futures.add(executor.submit(() -> llm.summarize(SummaryPrompts.SYSTEM, prompt)));
+        }
+        List<SummaryResult> partials = new ArrayList<>();
+        try {
+            for (Future<SummaryResult> f : futures) {
+                partials.add(f.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+
+        List<SummaryResult.ActionItemSuggestion> actionItems = dedupe(partials.stream()
+                .flatMap(p -> p.getActionItems().stream())
+                .toList());
+        SummaryResult reduced = finalLlm.summarize(SummaryPrompts.SYSTEM, SummaryPrompts.reduce(partialsJson(partials, actionItems)));
+        // The reduce call may rephrase duplicates back in; collapse again and keep the map-side list if it returned none
+        reduced.setActionItems(reduced.getActionItems() == null || reduced.getActionItems().isEmpty()
+                ? actionItems
+                : dedupe(reduced.getActionItems()));
+        return reduced;
+    }
+
+    // Splits on the last newline, sentence end or space in the final quarter of each window
+    public static List<String> windows(String text, int windowTokens) {
+        int maxChars = Math.max(1, windowTokens) * TokenEstimator.CHARS_PER_TOKEN;
+        List<String> out = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + maxChars);
+            if (end < text.length()) {
+                int cut = lastBoundary(text, start + maxChars * 3 / 4, end);
+                if (cut > start) end = cut;
+            }
+            String window = text.substring(start, end).trim();
+            if (!window.isEmpty()) out.add(window);
+            start = end;
+        }
+        return out;
+    }
+
+    private static int lastBoundary(String text, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (text.charAt(i) == '\n') return i + 1;
+        }
+        for (int i = to - 1; i > from; i--) {
+            char c = text.charAt(i - 1);
+            if ((c == '.' || c == '?' || c == '!') && Character.isWhitespace(text.charAt(i))) return i;
+        }
+        for (int i = to - 1; i >= from; i--) {
+            if (Character.isWhitespace(text.charAt(i))) return i;
+        }
+        return -1;
+    }
+
+    // Same task mentioned in several windows: keep the first wording, fill in owner and due date from later ones
+    public static List<SummaryResult.ActionItemSuggestion> dedupe(List<SummaryResult.ActionItemSuggestion> items) {
+        Map<String, SummaryResult.ActionItemSuggestion> byKey = new LinkedHashMap<>();
+        for (SummaryResult.ActionItemSuggestion item : items) {
+            if (item == null || item.getDescription() == null || item.getDescription().isBlank()) continue;
+            String key = item.getDescription().toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+            SummaryResult.ActionItemSuggestion kept = byKey.get(key);
+            if (kept == null) {
+                byKey.put(key, new SummaryResult.ActionItemSuggestion(item.getDescription(), item.getAssignedTo(), item.getDueDate()));
+                continue;
+            }
+            if (isBlank(kept.getAssignedTo())) kept.setAssignedTo(item.getAssignedTo());
+            if (kept.getDueDate() == null) kept.setDueDate(item.getDueDate());
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private String partialsJson(List<SummaryResult> partials, List<SummaryResult.ActionItemSuggestion> actionItems) throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode parts = root.putArray("parts");
+        for (int i = 0; i < partials.size(); i++) {
+            ObjectNode part = parts.addObject();
+            part.put("part", i + 1);
+            part.put("summaryText", partials.get(i).getSummaryText());
+            part.put("keyDecisions", partials.get(i).getKeyDecisions());
+        }
+        ArrayNode items = root.putArray("actionItems");
+        for (SummaryResult.ActionItemSuggestion s : actionItems) {
+            ObjectNode item = items.addObject();
+            item.put("description", s.getDescription());
+            item.put("assignedTo", s.getAssignedTo());
+            item.put("dueDate", s.getDueDate() == null ? null : s.getDueDate().toString());
+        }
+        return mapper.writeValueAsString(root);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
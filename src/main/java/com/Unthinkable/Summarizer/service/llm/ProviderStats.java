@@ -0,0 +1,55 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import java.util.Arrays;
+
+// Rolling latency and error rate of one provider over its last `window` calls, ignoring calls older
+// than ttlMs so a provider that was failing earlier gets a fresh look once its samples expire.
+public class ProviderStats {
+
+    public record Snapshot(int samples, long p50Ms, long p95Ms, double errorRate) {}
+
+    private final long[] latencyMs;
+    private final boolean[] success;
+    private final long[] at;
+    private final long ttlMs;
+    private int next;
+    private int size;
+
+    public ProviderStats(int window, long ttlMs) {
+        int n = Math.max(1, window);
+        this.latencyMs = new long[n];
+        this.success = new boolean[n];
+        this.at = new long[n];
+        this.ttlMs = ttlMs;
+    }
+
+    public synchronized void record(long latency, boolean ok, long now) {
+        latencyMs[next] = latency;
+        success[next] = ok;
+        at[next] = now;
+        next = (next + 1) % latencyMs.length;
+        size = Math.min(size + 1, latencyMs.length);
+    }
+
+    public synchronized Snapshot snapshot(long now) {
+        long[] okLatencies = new long[size];
+        int samples = 0;
+        int oks = 0;
+        for (int i = 0; i < size; i++) {
+            if (ttlMs > 0 && now - at[i] > ttlMs) continue;
+            samples++;
+            if (success[i]) okLatencies[oks++] = latencyMs[i];
+        }
+        if (samples == 0) return new Snapshot(0, 0, 0, 0);
+        long[] sorted = Arrays.copyOf(okLatencies, oks);
+        Arrays.sort(sorted);
+        return new Snapshot(samples, percentile(sorted, 0.50), percentile(sorted, 0.95), 1.0 - (double) oks / samples);
+    }
+
+    // Nearest-rank percentile; 0 when nothing succeeded
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,149 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import com.Unthinkable.Summarizer.model.SummaryCacheEntry;
+import com.Unthinkable.Summarizer.repository.SummaryCacheRepository;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Summaries keyed by transcript SHA-256, provider, model and prompt version: reprocessing a meeting
+// or getting the same transcript again costs no LLM call. The version also covers the map-reduce and
+// compaction settings, so changing how a transcript is windowed or cut misses the old entries. A
+// bounded LRU map serves repeats in this process; the summary_cache table (optional) carries them
+// across restarts and instances.
+@Service
+public class SummaryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryCache.class);
+
+    public record Key(String transcriptSha256, String provider, String model, String promptVersion) {}
+
+    private final SummaryCacheRepository repository;
+    private final WorkerResourceGuard resources;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final boolean persistent;
+    private final String version;
+    private final Map<Key, String> memory;
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    public SummaryCache(SummaryCacheRepository repository,
+                        WorkerResourceGuard resources,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.llm.summary-cache.max-entries:256}") int maxEntries,
+                        @Value("${app.llm.summary-cache.persistent:true}") boolean persistent,
+                        @Value("${app.llm.map-reduce.single-call-max-tokens:12000}") int singleCallMaxTokens,
+                        @Value("${app.llm.map-reduce.window-tokens:6000}") int windowTokens,
+                        @Value("${app.llm.compaction.max-tokens:0}") int compactionMaxTokens) {
+        this.repository = repository;
+        this.resources = resources;
+        this.persistent = persistent;
+        this.version = SummaryPrompts.versionWith("single-call-max-tokens=" + singleCallMaxTokens,
+                "window-tokens=" + windowTokens, "compaction.max-tokens=" + compactionMaxTokens);
+        int capacity = Math.max(0, maxEntries);
+        // Access-ordered, so the eldest entry is the least recently used one; values are JSON so
+        // callers can't mutate what is cached
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.memoryHits = Counter.builder("llm.summary.cache").tag("result", "hit").tag("tier", "memory").register(meterRegistry);
+        this.dbHits = Counter.builder("llm.summary.cache").tag("result", "hit").tag("tier", "db").register(meterRegistry);
+        this.misses = Counter.builder("llm.summary.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    // Any configured provider's summary of this transcript will do; the router may have picked any of them
+    public Optional<SummaryResult> lookup(String transcript, List<LlmProvider> providers) throws Exception {
+        String sha = sha256(transcript);
+        for (LlmProvider provider : providers) {
+            Key key = new Key(sha, provider.name(), modelOf(provider), version);
+            String json;
+            synchronized (memory) {
+                json = memory.get(key);
+            }
+            if (json != null) {
+                memoryHits.increment();
+                return Optional.of(mapper.readValue(json, SummaryResult.class));
+            }
+        }
+        if (persistent) {
+            for (LlmProvider provider : providers) {
+                Key key = new Key(sha, provider.name(), modelOf(provider), version);
+                Optional<SummaryCacheEntry> entry = resources.db(() -> repository.findByTranscriptSha256AndProviderAndModelAndPromptVersion(
+                        key.transcriptSha256(), key.provider(), key.model(), key.promptVersion()));
+                if (entry.isPresent()) {
+                    dbHits.increment();
+                    log.info("Summary cache hit for transcript {} ({}/{})", sha, key.provider(), key.model());
+                    remember(key, entry.get().getResultJson());
+                    return Optional.of(mapper.readValue(entry.get().getResultJson(), SummaryResult.class));
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void store(String transcript, LlmProvider provider, SummaryResult result) throws Exception {
+        store(new Key(sha256(transcript), provider.name(), modelOf(provider), version), result);
+    }
+
+    private void store(Key key, SummaryResult result) throws Exception {
+        // An empty summary is more likely a bad response than a real result; let the next run retry
+        if (result == null || result.getSummaryText() == null || result.getSummaryText().isBlank()) return;
+        String json = mapper.writeValueAsString(result);
+        remember(key, json);
+        if (!persistent) return;
+        SummaryCacheEntry entry = new SummaryCacheEntry();
+        entry.setTranscriptSha256(key.transcriptSha256());
+        entry.setProvider(key.provider());
+        entry.setModel(key.model());
+        entry.setPromptVersion(key.promptVersion());
+        entry.setResultJson(json);
+        try {
+            resources.db(() -> repository.save(entry));
+        } catch (DataIntegrityViolationException e) {
+            // Same transcript summarized concurrently by another job
+            log.debug("Summary cache entry for {} already stored", key.transcriptSha256());
+        }
+    }
+
+    private static String modelOf(LlmProvider provider) {
+        return provider.model() == null ? "" : provider.model();
+    }
+
+    private void remember(Key key, String json) {
+        synchronized (memory) {
+            memory.put(key, json);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Prompts shared by every LLM provider, so single-call and map-reduce summaries ask for the same JSON shape
+public final class SummaryPrompts {
+
+    public static final String SYSTEM = "You are an expert meeting assistant. Return a strict JSON object with keys: summaryText (string), keyDecisions (string), actionItems (array of objects with description, assignedTo, dueDate in YYYY-MM-DD or null).";
+
+    // Fingerprint of every template below; cached summaries made with other wording no longer match
+    public static final String VERSION = fingerprint(SYSTEM, whole("\0"), window(1, 2, "\0"), reduce("\0"));
+
+    private SummaryPrompts() {}
+
+    public static String whole(String transcript) {
+        return "Summarize this meeting transcript into key decisions and action items. Transcript:\n\n" + transcript;
+    }
+
+    public static String window(int part, int parts, String transcriptWindow) {
+        return "This is part " + part + " of " + parts + " of a long meeting transcript. Summarize only this part in at most 150 words, "
+                + "list the decisions made in it, and every action item mentioned in it. Transcript part:\n\n" + transcriptWindow;
+    }
+
+    public static String reduce(String partialSummariesJson) {
+        return "These are summaries of consecutive parts of one meeting, in order, with the action items already collected from them. "
+                + "Write one summary of the whole meeting and one combined list of key decisions. Return the action items merged: "
+                + "keep each distinct task once, combining owners and due dates of duplicates. Partial summaries:\n\n" + partialSummariesJson;
+    }
+
+    // VERSION combined with settings that also shape the summary, e.g. how a transcript is windowed
+    static String versionWith(String... settings) {
+        String[] parts = new String[settings.length + 1];
+        parts[0] = VERSION;
+        System.arraycopy(settings, 0, parts, 1, settings.length);
+        return fingerprint(parts);
+    }
+
+    private static String fingerprint(String... templates) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String t : templates) {
+                digest.update(t.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming decoder shared by every LLM client. Pulls the generated text out of a provider's response
+// envelope and reads the summary object from it token by token, without building JsonNode trees or
+// running regexes. Text around the object (```json fences, a sentence of preamble) is skipped, common
+// model slips (trailing commas, single quotes, comments) are accepted, and anything else fails with
+// the line and column of the problem.
+public final class SummaryResultDecoder {
+
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .build();
+
+    private SummaryResultDecoder() {}
+
+    // String at a path of field names and array indexes ("candidates", "0", "content", ...), or "" if absent
+    public static String textAt(String json, String... path) {
+        try (JsonParser p = FACTORY.createParser(json)) {
+            if (p.nextToken() == null) return "";
+            for (String step : path) {
+                if (!seek(p, step)) return "";
+            }
+            JsonToken t = p.currentToken();
+            return t != null && t.isScalarValue() && t != JsonToken.VALUE_NULL ? p.getText() : "";
+        } catch (JsonProcessingException e) {
+            throw malformed("LLM response", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read LLM response: " + e.getMessage(), e);
+        }
+    }
+
+    // A non-blocking parser with the same leniency, for output that arrives in pieces
+    static JsonParser nonBlockingParser() throws IOException {
+        return FACTORY.createNonBlockingByteArrayParser();
+    }
+
+    public static SummaryResult decode(String content) {
+        int start = content == null ? -1 : content.indexOf('{');
+        if (start < 0) {
+            throw new IllegalStateException("LLM answer contains no JSON object: " + abbreviate(content));
+        }
+        StringReader reader = new StringReader(content);
+        try (JsonParser p = FACTORY.createParser(reader)) {
+            reader.skip(start);
+            p.nextToken();
+            return readSummary(p);
+        } catch (JsonProcessingException e) {
+            // Locations are relative to the opening brace
+            throw malformed("Summary JSON", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read summary JSON: " + e.getMessage(), e);
+        }
+    }
+
+    // Moves from the current container start to the value of `step`; false if it is not there
+    private static boolean seek(JsonParser p, String step) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                if (name.equals(step)) return true;
+                p.skipChildren();
+            }
+            return false;
+        }
+        if (t == JsonToken.START_ARRAY) {
+            int index;
+            try {
+                index = Integer.parseInt(step);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            for (int i = 0; p.nextToken() != JsonToken.END_ARRAY; i++) {
+                if (i == index) return true;
+                p.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private static SummaryResult readSummary(JsonParser p) throws IOException {
+        SummaryResult result = new SummaryResult("", "", new ArrayList<>());
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            readField(p, name, result);
+        }
+        if (p.currentToken() != JsonToken.END_OBJECT) {
+            throw new IllegalStateException("Summary JSON ended early at " + where(p.currentLocation()));
+        }
+        return result;
+    }
+
+    // Reads the value of one top-level field of the summary object (the parser is on its first token)
+    // into result. Also used by IncrementalSummaryParser, one completed value at a time.
+    static void readField(JsonParser p, String name, SummaryResult result) throws IOException {
+        switch (name) {
+            case "summaryText" -> result.setSummaryText(readText(p, ""));
+            case "keyDecisions" -> result.setKeyDecisions(readText(p, ""));
+            case "actionItems" -> result.setActionItems(readActionItems(p));
+            default -> p.skipChildren();
+        }
+    }
+
+    private static List<SummaryResult.ActionItemSuggestion> readActionItems(JsonParser p) throws IOException {
+        List<SummaryResult.ActionItemSuggestion> items = new ArrayList<>();
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            if (p.currentToken() != JsonToken.VALUE_NULL) {
+                throw new IllegalStateException("Summary JSON: actionItems must be an array at " + where(p.currentLocation()));
+            }
+            return items;
+        }
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == null) {
+                throw new IllegalStateException("Summary JSON ended inside actionItems at " + where(p.currentLocation()));
+            }
+            SummaryResult.ActionItemSuggestion item = readActionItem(p);
+            if (item != null) items.add(item);
+        }
+        return items;
+    }
+
+    // One element of actionItems, or null if it is neither an object nor a bare task description
+    static SummaryResult.ActionItemSuggestion readActionItem(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_STRING) {
+            return new SummaryResult.ActionItemSuggestion(p.getText(), null, null);
+        }
+        if (t != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        SummaryResult.ActionItemSuggestion item = new SummaryResult.ActionItemSuggestion("", null, null);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "description" -> item.setDescription(readText(p, ""));
+                case "assignedTo" -> item.setAssignedTo(readText(p, null));
+                case "dueDate" -> item.setDueDate(isoDate(readText(p, null)));
+                default -> p.skipChildren();
+            }
+        }
+        return item;
+    }
+
+    // Scalars as text, arrays of strings joined by newlines (models sometimes list keyDecisions)
+    private static String readText(JsonParser p, String ifNull) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NULL) return ifNull;
+        if (t == JsonToken.START_ARRAY) {
+            StringBuilder sb = new StringBuilder();
+            while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                if (t.isScalarValue() && t != JsonToken.VALUE_NULL) {
+                    if (!sb.isEmpty()) sb.append('\n');
+                    sb.append(p.getText());
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return sb.toString();
+        }
+        if (t == JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return ifNull;
+        }
+        return p.getText();
+    }
+
+    // yyyy-MM-dd without a regex or a formatter; anything else (including impossible dates) is no date
+    static LocalDate isoDate(String s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return null;
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year < 0 || month < 0 || day < 0) return null;
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static IllegalStateException malformed(String what, JsonProcessingException e) {
+        return new IllegalStateException(what + " is malformed at " + where(e.getLocation()) + ": " + e.getOriginalMessage(), e);
+    }
+
+    private static String where(JsonLocation loc) {
+        return loc == null ? "unknown position" : "line " + loc.getLineNr() + ", column " + loc.getColumnNr();
+    }
+
+    private static String abbreviate(String s) {
+        if (s == null) return "null";
+        return s.length() <= 200 ? s : s.substring(0, 200) + "...";
+    }
+}
@@ -0,0 +1,14 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+// Rough token count for English text (about 4 characters per token); good enough to size prompt windows
+public final class TokenEstimator {
+
+    public static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {}
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,163 @@
+package com.Unthinkable.Summarizer.service.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Deterministic cleanup of ASR output before it goes into a prompt: drops filler words, collapses
+// stutters ("I I I think", "w- we") and phrases repeated back to back. A single word said twice is
+// left alone ("had had", "that that"); it takes three to count as a stutter. Only if a token budget
+// is set does it also cut the middle of an oversized meeting, keeping its opening and its wrap-up;
+// by default long transcripts go to map-reduce summarization whole. Lines (speaker turns) are kept;
+// the stored transcript is never changed.
+@Component
+public class TranscriptCompactor {
+
+    public record Result(String text, int tokensBefore, int tokensAfter) {}
+
+    private static final Set<String> FILLERS = Set.of("um", "umm", "uh", "uhh", "uhm", "erm", "er", "ah", "hmm", "mm", "mhm");
+    private static final int MAX_NGRAM = 6;
+
+    private final boolean enabled;
+    private final int maxTokens;
+
+    public TranscriptCompactor(@Value("${app.llm.compaction.enabled:true}") boolean enabled,
+                               @Value("${app.llm.compaction.max-tokens:0}") int maxTokens) {
+        this.enabled = enabled;
+        this.maxTokens = maxTokens;
+    }
+
+    public Result compact(String transcript) {
+        String text = transcript == null ? "" : transcript;
+        int before = TokenEstimator.estimate(text);
+        if (!enabled) {
+            return new Result(text, before, before);
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (String line : text.split("\\R")) {
+            String cleaned = compactLine(line);
+            if (cleaned.isEmpty()) continue;
+            if (!out.isEmpty()) out.append('\n');
+            out.append(cleaned);
+        }
+        String compacted = trimToBudget(out.toString(), maxTokens);
+        return new Result(compacted, before, TokenEstimator.estimate(compacted));
+    }
+
+    static String compactLine(String line) {
+        String[] raw = line.trim().split("\\s+");
+        List<String> words = new ArrayList<>(raw.length);
+        for (String w : raw) {
+            if (w.isEmpty()) continue;
+            String key = normalize(w);
+            if (FILLERS.contains(key)) {
+                // Keep sentence punctuation the filler carried ("..., um." -> "...")
+                carryPunctuation(words, w);
+                continue;
+            }
+            if (!words.isEmpty()) {
+                String prev = words.get(words.size() - 1);
+                // "w- we" / "th- the": a cut-off start of the next word
+                if (prev.endsWith("-") && prev.length() > 1 && key.startsWith(normalize(prev))) {
+                    words.set(words.size() - 1, w);
+                    continue;
+                }
+            }
+            words.add(w);
+        }
+        for (int n = 1; n <= MAX_NGRAM; n++) {
+            words = collapseRepeats(words, n);
+        }
+        return String.join(" ", words);
+    }
+
+    // Drops copies of an n-word phrase that immediately repeat the one before it, however often it
+    // repeats. Single words only go when said three or more times in a row.
+    static List<String> collapseRepeats(List<String> words, int n) {
+        if (words.size() < 2 * n) return words;
+        int minCopies = n == 1 ? 2 : 1;
+        List<String> out = new ArrayList<>(words.size());
+        int i = 0;
+        while (i < words.size()) {
+            out.add(words.get(i));
+            i++;
+            int len = out.size();
+            if (len < n) continue;
+            int copies = 0;
+            while (i + (copies + 1) * n <= words.size() && samePhrase(out, len - n, words, i + copies * n, n)) {
+                copies++;
+            }
+            if (copies < minCopies) continue;
+            // Keep the trailing punctuation of the copy that is dropped ("we should, we should." -> "we should.")
+            String last = words.get(i + copies * n - 1);
+            out.set(len - 1, stripTrailingPunctuation(out.get(len - 1)) + trailingPunctuation(last));
+            i += copies * n;
+        }
+        return out;
+    }
+
+    private static boolean samePhrase(List<String> a, int aFrom, List<String> b, int bFrom, int n) {
+        for (int k = 0; k < n; k++) {
+            String x = normalize(a.get(aFrom + k));
+            if (x.isEmpty() || !x.equals(normalize(b.get(bFrom + k)))) return false;
+        }
+        return true;
+    }
+
+    // Cuts whole lines (or words, for one huge line) out of the middle until the text fits
+    static String trimToBudget(String text, int maxTokens) {
+        if (maxTokens <= 0 || TokenEstimator.estimate(text) <= maxTokens) return text;
+        int budgetChars = maxTokens * TokenEstimator.CHARS_PER_TOKEN;
+        String marker = "\n[... middle of the meeting omitted ...]\n";
+        int keep = Math.max(0, budgetChars - marker.length());
+        int headEnd = boundaryBefore(text, keep / 2);
+        int tailStart = boundaryAfter(text, text.length() - (keep - headEnd));
+        if (tailStart <= headEnd) return text.substring(0, Math.min(text.length(), budgetChars));
+        return text.substring(0, headEnd).stripTrailing() + marker + text.substring(tailStart).stripLeading();
+    }
+
+    private static int boundaryBefore(String text, int pos) {
+        int nl = text.lastIndexOf('\n', pos);
+        if (nl > pos / 2) return nl;
+        int sp = text.lastIndexOf(' ', pos);
+        return sp > 0 ? sp : pos;
+    }
+
+    private static int boundaryAfter(String text, int pos) {
+        int nl = text.indexOf('\n', pos);
+        if (nl >= 0 && nl - pos < (text.length() - pos) / 2) return nl + 1;
+        int sp = text.indexOf(' ', pos);
+        return sp >= 0 ? sp + 1 : pos;
+    }
+
+    private static void carryPunctuation(List<String> words, String filler) {
+        String punct = trailingPunctuation(filler);
+        if (punct.isEmpty() || words.isEmpty() || punct.equals(",")) return;
+        int last = words.size() - 1;
+        words.set(last, stripTrailingPunctuation(words.get(last)) + punct);
+    }
+
+    private static String normalize(String word) {
+        StringBuilder sb = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '\'') sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String trailingPunctuation(String word) {
+        int end = word.length();
+        int i = end;
+        while (i > 0 && ".,!?;:".indexOf(word.charAt(i - 1)) >= 0) i--;
+        return word.substring(i, end);
+    }
+
+    private static String stripTrailingPunctuation(String word) {
+        return word.substring(0, word.length() - trailingPunctuation(word).length());
+    }
+}
@@ -1 +1,135 @@
+package com.Unthinkable.Summarizer.service.ollama;
 
+import com.Unthinkable.Summarizer.service.llm.LlmProvider;
+import com.Unthinkable.Summarizer.service.llm.SummaryPrompts;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import com.Unthinkable.Summarizer.service.llm.TokenEstimator;
+import com.Unthinkable.Summarizer.service.provider.ProviderTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Local Ollama server (/api/generate). Calls go over pooled HTTP/1.1 keep-alive connections, ask the
+// server to keep the model loaded between meetings, and size the context window to the prompt. The
+// "ollama" adaptive limit (app.provider.concurrency.provider-max, 1 by default) keeps bulk reprocessing
+// queued in ProviderTransport instead of thrashing the server.
+@Component
+public class OllamaClient implements LlmProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(OllamaClient.class);
+
+    // Room left for the JSON answer on top of the prompt
+    private static final int RESPONSE_TOKENS = 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ProviderTransport transport;
+    private final String baseUrl;
+    private final String model;
+    private final String keepAlive;
+    private final int numCtxMin;
+    private final int numCtxMax;
+    private final Duration timeout;
+
+    public OllamaClient(ProviderTransport transport,
+                        @Value("${app.ollama.base-url:http://localhost:11434}") String baseUrl,
+                        @Value("${app.ollama.model:llama3.1}") String model,
+                        @Value("${app.ollama.keep-alive:30m}") String keepAlive,
+                        @Value("${app.ollama.num-ctx-min:4096}") int numCtxMin,
+                        @Value("${app.ollama.num-ctx-max:32768}") int numCtxMax,
+                        @Value("${app.ollama.timeout-seconds:600}") long timeoutSeconds) {
+        this.transport = transport;
+        this.baseUrl = baseUrl == null ? "" : baseUrl.replaceAll("/+$", "");
+        this.model = model;
+        this.keepAlive = keepAlive;
+        this.numCtxMin = Math.max(512, numCtxMin);
+        this.numCtxMax = Math.max(this.numCtxMin, numCtxMax);
+        this.timeout = Duration.ofSeconds(Math.max(1, timeoutSeconds));
+    }
+
+    @Override
+    public String name() {
+        return "ollama";
+    }
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return !baseUrl.isBlank() && model != null && !model.isBlank();
+    }
+
+    public SummaryResult summarize(String transcript) throws Exception {
+        return summarize(SummaryPrompts.SYSTEM, SummaryPrompts.whole(transcript));
+    }
+
+    @Override
+    public SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception {
+        if (!isConfigured()) throw new IllegalStateException("Ollama base URL/model not configured");
+        ObjectNode root = mapper.createObjectNode();
+        root.put("model", model);
+        root.put("system", systemPrompt);
+        root.put("prompt", userPrompt);
+        root.put("stream", false);
+        root.put("format", "json");
+        root.put("keep_alive", keepAlive);
+        ObjectNode options = root.putObject("options");
+        options.put("num_ctx", numCtx(systemPrompt, userPrompt));
+        options.put("temperature", 0.2);
+
+        HttpResponse<String> resp = generate(root);
+        if (resp.statusCode() >= 300) {
+            throw new IllegalStateException("Ollama summarize failed: " + resp.statusCode() + " - " + resp.body());
+        }
+        return SummaryResultDecoder.decode(SummaryResultDecoder.textAt(resp.body(), "response"));
+    }
+
+    // A request without a prompt just loads the model (and resets its keep-alive timer)
+    public void warmUp() throws Exception {
+        if (!isConfigured()) return;
+        ObjectNode root = mapper.createObjectNode();
+        root.put("model", model);
+        root.put("keep_alive", keepAlive);
+        HttpResponse<String> resp = generate(root);
+        if (resp.statusCode() >= 300) {
+            throw new IllegalStateException("Ollama warm-up failed: " + resp.statusCode() + " - " + resp.body());
+        }
+        log.info("Ollama model {} loaded (keep_alive {})", model, keepAlive);
+    }
+
+    // Next power of two that fits prompt plus answer, within [num-ctx-min, num-ctx-max]
+    int numCtx(String systemPrompt, String userPrompt) {
+        int needed = TokenEstimator.estimate(systemPrompt) + TokenEstimator.estimate(userPrompt) + RESPONSE_TOKENS;
+        int ctx = Integer.highestOneBit(Math.max(1, needed - 1)) << 1;
+        return Math.min(numCtxMax, Math.max(numCtxMin, ctx));
+    }
+
+    private HttpResponse<String> generate(ObjectNode body) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/generate"))
+                // Ollama speaks plain HTTP/1.1; skip the h2c upgrade attempt and reuse keep-alive connections
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        try {
+            return transport.send("ollama", "generate", req);
+        } catch (ConnectException e) {
+            throw new IllegalStateException("Ollama not reachable at " + baseUrl, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.Unthinkable.Summarizer.service.openai;
+
+import java.io.FileNotFoundException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// multipart/form-data body assembled from publishers: field headers are small byte arrays and file
+// contents are read from disk (or an existing buffer) while the request is sent, never copied into
+// one array. Every part has a known length, so the request carries an exact Content-Length.
+public final class MultipartBody {
+
+    private static final String CRLF = "\r\n";
+
+    private final String boundary = "Boundary-" + UUID.randomUUID();
+    private final List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+
+    public MultipartBody field(String name, String value) {
+        parts.add(text("--" + boundary + CRLF
+                + "Content-Disposition: form-data; name=\"" + name + "\"" + CRLF + CRLF
+                + value + CRLF));
+        return this;
+    }
+
+    public MultipartBody file(String name, Path file, String contentType) throws FileNotFoundException {
+        return file(name, file.getFileName().toString(), contentType, HttpRequest.BodyPublishers.ofFile(file));
+    }
+
+    public MultipartBody file(String name, String fileName, String contentType, HttpRequest.BodyPublisher content) {
+        parts.add(text("--" + boundary + CRLF
+                + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName.replace("\"", "") + "\"" + CRLF
+                + "Content-Type: " + contentType + CRLF + CRLF));
+        parts.add(content);
+        parts.add(text(CRLF));
+        return this;
+    }
+
+    public String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    public HttpRequest.BodyPublisher publisher() {
+        List<HttpRequest.BodyPublisher> all = new ArrayList<>(parts);
+        all.add(text("--" + boundary + "--" + CRLF));
+        return HttpRequest.BodyPublishers.concat(all.toArray(HttpRequest.BodyPublisher[]::new));
+    }
+
+    private static HttpRequest.BodyPublisher text(String s) {
+        return HttpRequest.BodyPublishers.ofByteArray(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,32 +1,46 @@
 package com.Unthinkable.Summarizer.service.openai;
 
+import com.Unthinkable.Summarizer.service.asr.FfmpegPcmSource;
+import com.Unthinkable.Summarizer.service.asr.ParallelChunkRecognizer;
+import com.Unthinkable.Summarizer.service.asr.PcmChunk;
+import com.Unthinkable.Summarizer.service.asr.VadChunker;
+import com.Unthinkable.Summarizer.service.llm.LlmProvider;
+import com.Unthinkable.Summarizer.service.llm.SummaryPrompts;
 import com.Unthinkable.Summarizer.service.llm.SummaryResult;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import com.Unthinkable.Summarizer.service.provider.ProviderTransport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
-public class OpenAiClient {
+public class OpenAiClient implements LlmProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenAiClient.class);
+    private static final int WAV_HEADER_BYTES = 44;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProviderTransport transport;
+    private final FfmpegPcmSource pcmSource;
+    private final ParallelChunkRecognizer chunkRecognizer;
 
     @Value("${app.openai.api-key:}")
     private String apiKey;
@@ -37,62 +51,117 @@ public class OpenAiClient {
     @Value("${app.openai.asr.model:whisper-1}")
     private String asrModel;
 
-    private HttpClient client() {
-        return HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+    // The transcription endpoint rejects uploads over 25 MB; keep some headroom for the multipart framing
+    @Value("${app.openai.asr.max-upload-bytes:25000000}")
+    private long maxUploadBytes;
+
+    @Value("${app.openai.asr.split-seconds:600}")
+    private int splitSeconds;
+
+    // Each piece is held in memory as PCM until its upload finishes, so pieces stay well under the
+    // upload limit (4 MB is about two minutes) and only a few are in flight at once
+    @Value("${app.openai.asr.piece-max-bytes:4194304}")
+    private long pieceMaxBytes;
+
+    @Value("${app.openai.asr.split-parallelism:2}")
+    private int splitParallelism;
+
+    @Value("${app.asr.vad.pause-ms:400}")
+    private int vadPauseMs;
+
+    @Value("${app.asr.vad.padding-ms:300}")
+    private int vadPaddingMs;
+
+    @Override
+    public String name() {
+        return "openai";
     }
 
+    @Override
+    public String model() {
+        return chatModel;
+    }
+
+    @Override
     public boolean isConfigured() {
         return apiKey != null && !apiKey.isBlank();
     }
 
+    // Files within the per-request limit are streamed from disk as they are; larger ones are decoded,
+    // split in pauses into pieces that fit, and the pieces transcribed in parallel and joined in order
     public String transcribe(Path audio) throws Exception {
         if (!isConfigured()) throw new IllegalStateException("OpenAI API key not configured");
-        String boundary = "Boundary-" + UUID.randomUUID();
-        String CRLF = "\r\n";
-        byte[] fileBytes = Files.readAllBytes(audio);
-        String fileName = audio.getFileName().toString();
-
-        StringBuilder sb = new StringBuilder();
-        // model field
-        sb.append("--").append(boundary).append(CRLF);
-        sb.append("Content-Disposition: form-data; name=\"model\"").append(CRLF).append(CRLF);
-        sb.append(asrModel).append(CRLF);
-        // response_format json
-        sb.append("--").append(boundary).append(CRLF);
-        sb.append("Content-Disposition: form-data; name=\"response_format\"").append(CRLF).append(CRLF);
-        sb.append("json").append(CRLF);
-        // file part header
-        sb.append("--").append(boundary).append(CRLF);
-        sb.append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(fileName).append("\"").append(CRLF);
-        sb.append("Content-Type: application/octet-stream").append(CRLF).append(CRLF);
-        byte[] preamble = sb.toString().getBytes(StandardCharsets.UTF_8);
-        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8);
-
-        byte[] body = new byte[preamble.length + fileBytes.length + closing.length];
-        System.arraycopy(preamble, 0, body, 0, preamble.length);
-        System.arraycopy(fileBytes, 0, body, preamble.length, fileBytes.length);
-        System.arraycopy(closing, 0, body, preamble.length + fileBytes.length, closing.length);
+        if (Files.size(audio) <= maxUploadBytes) {
+            return transcribe(new MultipartBody().file("file", audio, "application/octet-stream"));
+        }
+        // Room for the WAV header in each piece
+        long pieceBytes = Math.min(pieceMaxBytes, maxUploadBytes) - WAV_HEADER_BYTES;
+        int maxSeconds = (int) Math.max(1, Math.min(splitSeconds, pieceBytes / FfmpegPcmSource.BYTES_PER_SECOND));
+        VadChunker.Settings settings = new VadChunker.Settings(maxSeconds / 2, maxSeconds, vadPauseMs, vadPaddingMs);
+        try (FfmpegPcmSource.PcmStream pcm = pcmSource.open(audio);
+             ParallelChunkRecognizer.Session<PcmChunk> session = chunkRecognizer.open((index, chunk) -> transcribe(
+                     new MultipartBody().file("file", "part-" + index + ".wav", "audio/wav", wav(chunk.data()))),
+                     splitParallelism)) {
+            VadChunker chunker = new VadChunker(pcm.pcm(), settings);
+            PcmChunk next;
+            while ((next = chunker.next()) != null) {
+                session.submit(next);
+            }
+            pcm.awaitSuccess();
+            log.info("Transcribing {} ({} bytes) in {} pieces of up to {}s", audio.getFileName(), Files.size(audio),
+                    session.submittedCount(), maxSeconds);
+            return joinParts(session.finish());
+        }
+    }
 
+    private String transcribe(MultipartBody body) throws Exception {
+        body.field("model", asrModel).field("response_format", "json");
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create("https://api.openai.com/v1/audio/transcriptions"))
-                .timeout(Duration.ofMinutes(2))
+                .timeout(Duration.ofMinutes(5))
                 .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
-                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .header("Content-Type", body.contentType())
+                .POST(body.publisher())
                 .build();
-        HttpResponse<String> response = client().send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = transport.send("openai", "transcribe", request);
         if (response.statusCode() >= 300) {
             throw new IOException("OpenAI ASR failed: " + response.statusCode() + " - " + response.body());
         }
-        JsonNode node = objectMapper.readTree(response.body());
-        JsonNode textNode = node.get("text");
-        return textNode != null ? textNode.asText() : response.body();
+        return SummaryResultDecoder.textAt(response.body(), "text");
+    }
+
+    // 16 kHz mono PCM16 with a canonical 44-byte header in front; the samples are not copied
+    private static HttpRequest.BodyPublisher wav(byte[] pcm) {
+        ByteBuffer h = ByteBuffer.allocate(WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        h.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + pcm.length);
+        h.put("WAVEfmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+                .putShort((short) 1).putShort((short) 1)
+                .putInt(FfmpegPcmSource.SAMPLE_RATE).putInt(FfmpegPcmSource.BYTES_PER_SECOND)
+                .putShort((short) FfmpegPcmSource.BYTES_PER_SAMPLE).putShort((short) 16);
+        h.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(pcm.length);
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofByteArray(h.array()),
+                HttpRequest.BodyPublishers.ofByteArray(pcm));
+    }
+
+    private static String joinParts(List<String> parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (!part.isBlank()) {
+                if (!sb.isEmpty()) sb.append(' ');
+                sb.append(part.trim());
+            }
+        }
+        return sb.toString();
     }
 
     public SummaryResult summarize(String transcript) throws Exception {
+        return summarize(SummaryPrompts.SYSTEM, SummaryPrompts.whole(transcript));
+    }
+
+    @Override
+    public SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception {
         if (!isConfigured()) throw new IllegalStateException("OpenAI API key not configured");
-        String systemPrompt = "You are an expert meeting assistant. Return a strict JSON object with keys: summaryText (string), keyDecisions (string), actionItems (array of objects with description, assignedTo, dueDate in YYYY-MM-DD or null).";
-        String userPrompt = "Summarize this meeting transcript into key decisions and action items. Transcript:\n\n" + transcript;
 
         ObjectNode root = objectMapper.createObjectNode();
         root.put("model", chatModel);
@@ -118,34 +187,11 @@ public class OpenAiClient {
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(body))
                 .build();
-        HttpResponse<String> response = client().send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = transport.send("openai", "summarize", request);
         if (response.statusCode() >= 300) {
             throw new IOException("OpenAI Chat failed: " + response.statusCode() + " - " + response.body());
         }
-        JsonNode rootResponse = objectMapper.readTree(response.body());
-        String content = rootResponse.path("choices").path(0).path("message").path("content").asText();
-        JsonNode json;
-        try {
-            json = objectMapper.readTree(content);
-        } catch (Exception e) {
-            String stripped = content.replaceAll("(?s)```json|```", "").trim();
-            json = objectMapper.readTree(stripped);
-        }
-        SummaryResult result = new SummaryResult();
-        result.setSummaryText(json.path("summaryText").asText(""));
-        result.setKeyDecisions(json.path("keyDecisions").asText(""));
-        List<SummaryResult.ActionItemSuggestion> items = new ArrayList<>();
-        for (JsonNode it : json.path("actionItems")) {
-            SummaryResult.ActionItemSuggestion s = new SummaryResult.ActionItemSuggestion();
-            s.setDescription(it.path("description").asText(""));
-            s.setAssignedTo(it.path("assignedTo").asText(null));
-            String due = it.path("dueDate").asText(null);
-            if (due != null && !due.isBlank() && due.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                s.setDueDate(java.time.LocalDate.parse(due));
-            }
-            items.add(s);
-        }
-        result.setActionItems(items);
-        return result;
+        return SummaryResultDecoder.decode(
+                SummaryResultDecoder.textAt(response.body(), "choices", "0", "message", "content"));
     }
 }
@@ -0,0 +1,188 @@
+package com.Unthinkable.Summarizer.service.provider;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+// AIMD concurrency limit for one provider. While calls succeed at close to the best latency seen and
+// the limit is actually in use, it grows by about one per limit's worth of calls; a 429, 503 or
+// timeout multiplies it by the backoff ratio, once per overload episode (calls already in flight when
+// the limit was cut do not cut it again). Callers over the limit wait in FIFO order up to a deadline.
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome { SUCCESS, OVERLOADED, IGNORED }
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private long baselineNanos;
+    private long lastDropNanos = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double latencyTolerance, double backoffRatio) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+        this.backoffRatio = Math.min(0.95, Math.max(0.1, backoffRatio));
+    }
+
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Permit() {}
+
+        public void release(Outcome outcome) {
+            release(outcome, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+
+        public void release(Outcome outcome, long latencyMs) {
+            AdaptiveConcurrencyLimiter.this.release(this, outcome, TimeUnit.MILLISECONDS.toNanos(Math.max(0, latencyMs)));
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition granted;
+        private boolean admitted;
+
+        private Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    // Throws IllegalStateException if no slot frees up within timeoutMs
+    public Permit acquire(long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return new Permit();
+            }
+            Waiter w = new Waiter(lock.newCondition());
+            waiters.addLast(w);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs));
+            try {
+                while (!w.admitted) {
+                    if (remaining <= 0) {
+                        waiters.remove(w);
+                        throw new IllegalStateException(name + " is at its concurrency limit (" + currentLimit()
+                                + "); no slot within " + timeoutMs + " ms");
+                    }
+                    remaining = w.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (w.admitted) {
+                    inFlight--;
+                    admitWaiting();
+                } else {
+                    waiters.remove(w);
+                }
+                throw e;
+            }
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs the call under a permit; exceptions matching `overloaded` count as overload, others are ignored
+    public <T> T call(long timeoutMs, Callable<T> call, Predicate<Throwable> overloaded) throws Exception {
+        Permit permit = acquire(timeoutMs);
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            T result = call.call();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (Exception e) {
+            if (overloaded.test(e)) outcome = Outcome.OVERLOADED;
+            throw e;
+        } finally {
+            permit.release(outcome);
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            if (permit.released) return;
+            permit.released = true;
+            boolean saturated = inFlight >= currentLimit() || !waiters.isEmpty();
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> {
+                    // Slowly forgetting minimum, so the baseline can follow a provider that got slower for good
+                    baselineNanos = baselineNanos == 0 || latencyNanos < baselineNanos
+                            ? latencyNanos
+                            : baselineNanos + (latencyNanos - baselineNanos) / 100;
+                    if (saturated && latencyNanos <= baselineNanos * latencyTolerance) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case OVERLOADED -> {
+                    if (lastDropNanos == Long.MIN_VALUE || permit.startNanos - lastDropNanos > 0) {
+                        limit = Math.max(minLimit, limit * backoffRatio);
+                        lastDropNanos = System.nanoTime();
+                    }
+                }
+                case IGNORED -> {
+                }
+            }
+            admitWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admitWaiting() {
+        while (!waiters.isEmpty() && inFlight < currentLimit()) {
+            Waiter w = waiters.pollFirst();
+            w.admitted = true;
+            inFlight++;
+            w.granted.signal();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+}
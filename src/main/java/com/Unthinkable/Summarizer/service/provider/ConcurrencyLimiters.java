@@ -0,0 +1,90 @@
+package com.Unthinkable.Summarizer.service.provider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// One adaptive concurrency limit per provider operation ("gemini"/"summarize", "gcp-speech"/"recognize",
+// ...), shared by every worker thread in the process, so raising listener concurrency queues calls here
+// instead of turning into 429s. Operations are kept apart because their latencies are not comparable:
+// a file-state GET next to a ten-minute upload would leave no usable latency baseline. Limits,
+// in-flight calls and queue length are exported as gauges. provider-max caps a single provider below
+// the global max, e.g. a local Ollama server that can only run one generation at a time.
+@Component
+public class ConcurrencyLimiters {
+
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Map<String, Integer> providerMaxLimits;
+    private final long queueTimeoutMs;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiters(MeterRegistry meterRegistry,
+                               @Value("${app.provider.concurrency.initial:4}") int initialLimit,
+                               @Value("${app.provider.concurrency.min:1}") int minLimit,
+                               @Value("${app.provider.concurrency.max:32}") int maxLimit,
+                               @Value("${app.provider.concurrency.queue-timeout-ms:120000}") long queueTimeoutMs,
+                               @Value("${app.provider.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+                               @Value("${app.provider.concurrency.backoff-ratio:0.5}") double backoffRatio,
+                               @Value("${app.provider.concurrency.provider-max:ollama=1}") String providerMax) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.providerMaxLimits = parseProviderMax(providerMax);
+        this.queueTimeoutMs = Math.max(0, queueTimeoutMs);
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public AdaptiveConcurrencyLimiter forOperation(String provider, String operation) {
+        return limiters.computeIfAbsent(provider + "/" + operation, name -> create(name, provider, operation));
+    }
+
+    // Waits up to the queue timeout for a slot; throws IllegalStateException when none frees up
+    public AdaptiveConcurrencyLimiter.Permit acquire(String provider, String operation) throws InterruptedException {
+        return forOperation(provider, operation).acquire(queueTimeoutMs);
+    }
+
+    public <T> T call(String provider, String operation, Callable<T> call, Predicate<Throwable> overloaded) throws Exception {
+        return forOperation(provider, operation).call(queueTimeoutMs, call, overloaded);
+    }
+
+    private AdaptiveConcurrencyLimiter create(String name, String provider, String operation) {
+        int max = providerMaxLimits.getOrDefault(provider, maxLimit);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, initialLimit, Math.min(minLimit, max), max,
+                latencyTolerance, backoffRatio);
+        Gauge.builder("provider.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .tag("provider", provider).tag("operation", operation).register(meterRegistry);
+        Gauge.builder("provider.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("provider", provider).tag("operation", operation).register(meterRegistry);
+        Gauge.builder("provider.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+                .tag("provider", provider).tag("operation", operation).register(meterRegistry);
+        return limiter;
+    }
+
+    // "ollama=1,openai=8"
+    private static Map<String, Integer> parseProviderMax(String spec) {
+        Map<String, Integer> limits = new HashMap<>();
+        if (spec == null || spec.isBlank()) return limits;
+        for (String pair : spec.split(",")) {
+            String[] kv = pair.split("=", 2);
+            if (kv.length != 2 || kv[0].isBlank()) {
+                throw new IllegalArgumentException("Invalid app.provider.concurrency.provider-max entry: " + pair);
+            }
+            limits.put(kv[0].trim(), Math.max(1, Integer.parseInt(kv[1].trim())));
+        }
+        return Map.copyOf(limits);
+    }
+}
@@ -0,0 +1,265 @@
+package com.Unthinkable.Summarizer.service.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLSession;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+// One pooled HTTP/2 client shared by all LLM/ASR provider calls. Transient failures (I/O errors,
+// 408, 429, 5xx) are retried with full-jitter exponential backoff, honoring Retry-After; each
+// provider has its own circuit breaker so a failing provider is refused fast instead of hammered,
+// and each attempt holds a slot of the adaptive concurrency limit for its provider operation while it
+// is in flight; for a streamed body that lasts until the caller closes the body.
+@Component
+public class ProviderTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderTransport.class);
+
+    private final HttpClient http;
+    private final ConcurrencyLimiters limiters;
+    private final int maxRetries;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMs;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ProviderTransport(ConcurrencyLimiters limiters,
+                             @Value("${app.provider.max-retries:3}") int maxRetries,
+                             @Value("${app.provider.backoff-base-ms:500}") long backoffBaseMs,
+                             @Value("${app.provider.backoff-max-ms:20000}") long backoffMaxMs,
+                             @Value("${app.provider.breaker.failure-threshold:5}") int breakerFailureThreshold,
+                             @Value("${app.provider.breaker.open-ms:30000}") long breakerOpenMs) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.limiters = limiters;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.backoffBaseMs = Math.max(1, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMs = breakerOpenMs;
+    }
+
+    public HttpResponse<String> send(String provider, String operation, HttpRequest request) throws IOException, InterruptedException {
+        return send(provider, operation, request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Returns the last response for non-retryable statuses or when retries run out; callers keep
+    // their own status handling. Throws IllegalStateException while the provider's circuit is open.
+    // A Stream or InputStream body must be closed by the caller to free its concurrency slot.
+    public <T> HttpResponse<T> send(String provider, String operation, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        return send(provider, operation, request, handler, maxRetries);
+    }
+
+    // Circuit breaking but no retries, for steps that are not safe to repeat as-is (e.g. a resumable
+    // upload chunk, where the caller has to ask the server how much arrived first)
+    public <T> HttpResponse<T> sendOnce(String provider, String operation, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        return send(provider, operation, request, handler, 0);
+    }
+
+    private <T> HttpResponse<T> send(String provider, String operation, HttpRequest request,
+                                     HttpResponse.BodyHandler<T> handler, int retries)
+            throws IOException, InterruptedException {
+        CircuitBreaker breaker = breaker(provider);
+        if (!breaker.tryAcquire()) {
+            throw new IllegalStateException(provider + " is unavailable (circuit open after repeated failures); retry in "
+                    + Math.max(1, breaker.retryInMs() / 1000) + "s");
+        }
+        int attempt = 0;
+        while (true) {
+            HttpResponse<T> response;
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = limiters.acquire(provider, operation);
+            } catch (InterruptedException | RuntimeException e) {
+                breaker.release();
+                throw e;
+            }
+            try {
+                response = http.send(request, handler);
+                AdaptiveConcurrencyLimiter.Outcome outcome = isOverload(response.statusCode())
+                        ? AdaptiveConcurrencyLimiter.Outcome.OVERLOADED
+                        : AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+                if (isRetryable(response.statusCode())) {
+                    permit.release(outcome);
+                } else {
+                    response = releaseWhenRead(response, () -> permit.release(outcome));
+                }
+            } catch (IOException e) {
+                permit.release(e instanceof HttpTimeoutException
+                        ? AdaptiveConcurrencyLimiter.Outcome.OVERLOADED
+                        : AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+                if (attempt >= retries) {
+                    breaker.onFailure();
+                    throw e;
+                }
+                long delay = backoffMs(attempt);
+                log.warn("{} request failed ({}); retry {}/{} in {} ms", provider, e.toString(), attempt + 1, retries, delay);
+                sleep(delay, breaker);
+                attempt++;
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                permit.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+                breaker.release();
+                throw e;
+            }
+            if (!isRetryable(response.statusCode())) {
+                breaker.onSuccess();
+                return response;
+            }
+            if (attempt >= retries) {
+                breaker.onFailure();
+                return response;
+            }
+            long delay = retryAfterMs(response).orElse(backoffMs(attempt));
+            discard(response);
+            log.warn("{} returned {}; retry {}/{} in {} ms", provider, response.statusCode(), attempt + 1, retries, delay);
+            sleep(delay, breaker);
+            attempt++;
+        }
+    }
+
+    public CircuitBreaker.State circuitState(String provider) {
+        return breaker(provider).state();
+    }
+
+    private CircuitBreaker breaker(String provider) {
+        return breakers.computeIfAbsent(provider, p -> new CircuitBreaker(breakerFailureThreshold, breakerOpenMs));
+    }
+
+    // The provider is shedding load or too slow to answer: shrink its concurrency limit
+    private static boolean isOverload(int status) {
+        return status == 408 || status == 429 || status == 503 || status == 504;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^attempt)]
+    private long backoffMs(int attempt) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private OptionalLong retryAfterMs(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) return OptionalLong.empty();
+        value = value.trim();
+        try {
+            long ms = Long.parseLong(value) * 1000L;
+            return OptionalLong.of(Math.min(backoffMaxMs, Math.max(0, ms)));
+        } catch (NumberFormatException ignore) {
+        }
+        try {
+            long ms = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)).toMillis();
+            return OptionalLong.of(Math.min(backoffMaxMs, Math.max(0, ms)));
+        } catch (Exception ignore) {
+            return OptionalLong.empty();
+        }
+    }
+
+    // A streamed body is still being generated after the headers arrive: the slot, and the latency
+    // sample fed to the limiter, last until the caller closes it
+    @SuppressWarnings("unchecked")
+    private static <T> HttpResponse<T> releaseWhenRead(HttpResponse<T> response, Runnable release) {
+        Object body = response.body();
+        if (body instanceof Stream<?> lines) {
+            return new WithBody<>(response, (T) lines.onClose(release));
+        }
+        if (body instanceof InputStream in) {
+            return new WithBody<>(response, (T) new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            });
+        }
+        release.run();
+        return response;
+    }
+
+    private record WithBody<T>(HttpResponse<?> response, T body) implements HttpResponse<T> {
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public HttpRequest request() {
+            return response.request();
+        }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return response.headers();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return response.sslSession();
+        }
+
+        @Override
+        public URI uri() {
+            return response.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return response.version();
+        }
+    }
+
+    // Streaming bodies (lines, input streams) hold the connection until closed
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof AutoCloseable body) {
+            try {
+                body.close();
+            } catch (Exception ignore) {
+            }
+        }
+    }
+
+    private static void sleep(long ms, CircuitBreaker breaker) throws InterruptedException {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            breaker.release();
+            throw e;
+        }
+    }
+}
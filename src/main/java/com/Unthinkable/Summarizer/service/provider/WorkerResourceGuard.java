@@ -0,0 +1,89 @@
+package com.Unthinkable.Summarizer.service.provider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Caps the resources that stay scarce when jobs run on virtual threads: DB work (the Hikari pool is
+// shared with web requests, and JDBC drivers can pin a carrier thread) and CPU-bound ffmpeg decodes.
+// Job concurrency can then be raised for the time spent waiting on providers without oversubscribing
+// either one. Permits in use and waiting callers are exported as gauges.
+@Component
+public class WorkerResourceGuard {
+
+    public enum Resource { DB, FFMPEG }
+
+    // Idempotent, so it can be released from both a finally block and a close()
+    public interface Slot extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final Map<Resource, Semaphore> permits = new EnumMap<>(Resource.class);
+    private final Map<Resource, Integer> sizes = new EnumMap<>(Resource.class);
+    private final long timeoutMs;
+
+    public WorkerResourceGuard(MeterRegistry meterRegistry,
+                               @Value("${app.worker.db-permits:8}") int dbPermits,
+                               @Value("${app.worker.ffmpeg-permits:0}") int ffmpegPermits,
+                               @Value("${app.worker.resource-timeout-ms:600000}") long timeoutMs) {
+        this.timeoutMs = Math.max(0, timeoutMs);
+        // 0 means one ffmpeg per core
+        register(meterRegistry, Resource.DB, Math.max(1, dbPermits));
+        register(meterRegistry, Resource.FFMPEG, ffmpegPermits > 0 ? ffmpegPermits : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Throws IllegalStateException if no permit frees up within the timeout
+    public Slot acquire(Resource resource) throws InterruptedException {
+        Semaphore semaphore = permits.get(resource);
+        if (!semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("No " + resource.name().toLowerCase() + " slot free within " + timeoutMs
+                    + " ms (" + sizes.get(resource) + " in use)");
+        }
+        return slot(semaphore);
+    }
+
+    // Never waits: empty when every permit is taken (for callers that can do without, e.g. a request thread)
+    public Optional<Slot> tryAcquire(Resource resource) {
+        Semaphore semaphore = permits.get(resource);
+        return semaphore.tryAcquire() ? Optional.of(slot(semaphore)) : Optional.empty();
+    }
+
+    public <T> T db(Callable<T> work) throws Exception {
+        try (Slot ignored = acquire(Resource.DB)) {
+            return work.call();
+        }
+    }
+
+    public int inUse(Resource resource) {
+        return sizes.get(resource) - permits.get(resource).availablePermits();
+    }
+
+    public int waiting(Resource resource) {
+        return permits.get(resource).getQueueLength();
+    }
+
+    private static Slot slot(Semaphore semaphore) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) semaphore.release();
+        };
+    }
+
+    private void register(MeterRegistry meterRegistry, Resource resource, int size) {
+        permits.put(resource, new Semaphore(size, true));
+        sizes.put(resource, size);
+        String tag = resource.name().toLowerCase();
+        Gauge.builder("worker.resource.in.use", this, g -> g.inUse(resource)).tag("resource", tag).register(meterRegistry);
+        Gauge.builder("worker.resource.waiting", this, g -> g.waiting(resource)).tag("resource", tag).register(meterRegistry);
+    }
+}
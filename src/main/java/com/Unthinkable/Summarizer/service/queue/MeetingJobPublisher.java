@@ -1,23 +1,31 @@
 package com.Unthinkable.Summarizer.service.queue;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Slf4j
 @Service
 public class MeetingJobPublisher {
 
+    private static final int MAX_ERROR_LENGTH = 500;
+
     private final RabbitTemplate rabbitTemplate;
+    private final RetryTopology retryTopology;
     private final String exchange;
     private final String routingKey;
 
     public MeetingJobPublisher(RabbitTemplate rabbitTemplate,
+                               RetryTopology retryTopology,
                                @Value("${app.rabbitmq.exchange}") String exchange,
                                @Value("${app.rabbitmq.routing}") String routingKey) {
         this.rabbitTemplate = rabbitTemplate;
+        this.retryTopology = retryTopology;
         this.exchange = exchange;
         this.routingKey = routingKey;
     }
@@ -27,14 +35,51 @@ public class MeetingJobPublisher {
         rabbitTemplate.convertAndSend(exchange, routingKey, new MeetingJobMessage(meetingId));
     }
 
-    @Async
-    public void publishAsync(Integer meetingId) {
-        // Fire-and-forget send to avoid blocking request thread if broker is slow or down
-        try {
-            log.info("Publishing async job for meeting {}", meetingId);
-            rabbitTemplate.convertAndSend(exchange, routingKey, new MeetingJobMessage(meetingId));
-        } catch (Exception ignored) {
-            // Intentionally ignore to not block the API; worker just won't receive this message
+    public void publishStage(StageMessage message) {
+        rabbitTemplate.convertAndSend(exchange, stageRoutingKey(message.stage()), message);
+    }
+
+    private String stageRoutingKey(PipelineStage stage) {
+        return routingKey + "." + stage.key();
+    }
+
+    // After a failed attempt: queues the next attempt behind the delay tier for it and returns true, or
+    // parks the message (tiers used up, or a permanent failure) and returns false
+    public boolean retryOrPark(MeetingJobMessage message, int attempt, Exception error, boolean permanent) {
+        return retryOrPark(message, message.getMeetingId(), routingKey, attempt, error, permanent);
+    }
+
+    // Same for one stage of the staged pipeline: the retry is dead-lettered back onto that stage's queue
+    public boolean retryOrPark(StageMessage message, int attempt, Exception error, boolean permanent) {
+        return retryOrPark(message, message.meetingId(), stageRoutingKey(message.stage()), attempt, error, permanent);
+    }
+
+    private boolean retryOrPark(Object message, Integer meetingId, String key, int attempt, Exception error, boolean permanent) {
+        String reason = String.valueOf(error);
+        if (reason.length() > MAX_ERROR_LENGTH) reason = reason.substring(0, MAX_ERROR_LENGTH);
+        Optional<RetryTopology.Tier> tier = permanent ? Optional.empty() : retryTopology.tierFor(attempt);
+        if (tier.isPresent()) {
+            // The tier queue dead-letters with the routing key used here
+            rabbitTemplate.convertAndSend(tier.get().exchange(), key, message, headers(attempt + 1, reason));
+            log.info("Meeting {}: attempt {} failed ({}), retrying in {}", meetingId, attempt, key, tier.get().label());
+            return true;
         }
+        rabbitTemplate.convertAndSend("", retryTopology.parkingQueue(), message, headers(attempt, reason));
+        log.warn("Meeting {}: parked in {} after attempt {} ({})", meetingId, retryTopology.parkingQueue(), attempt, key);
+        return false;
+    }
+
+    private static MessagePostProcessor headers(int attempt, String error) {
+        return m -> {
+            m.getMessageProperties().setHeader(RetryTopology.ATTEMPT_HEADER, attempt);
+            m.getMessageProperties().setHeader(RetryTopology.ERROR_HEADER, error);
+            return m;
+        };
+    }
+
+    // Used by OutboxRelay: the broker's confirm (and any return of an unroutable message) completes the
+    // correlation, so a batch can be sent first and confirmed together
+    public void publishConfirmed(Integer meetingId, CorrelationData correlation) {
+        rabbitTemplate.convertAndSend(exchange, routingKey, new MeetingJobMessage(meetingId), correlation);
     }
 }
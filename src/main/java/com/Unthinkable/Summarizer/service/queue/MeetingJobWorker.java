@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import com.Unthinkable.Summarizer.service.queue.MeetingJobMessage;
 
@@ -15,22 +17,40 @@ public class MeetingJobWorker {
     private static final Logger log = LoggerFactory.getLogger(MeetingJobWorker.class);
 
     private final MeetingProcessingService meetingProcessingService;
+    private final MeetingJobPublisher meetingJobPublisher;
 
-    @RabbitListener(queues = "${app.rabbitmq.queue}")
-    public void handle(MeetingJobMessage msg) {
+    @Value("${app.pipeline.staged:false}")
+    private boolean stagedPipeline;
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}", containerFactory = "meetingJobContainerFactory")
+    public void handle(MeetingJobMessage msg,
+                       @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attemptHeader) {
         if (msg == null || msg.getMeetingId() == null) {
             log.warn("Received invalid message: {}", msg);
             return;
         }
         Integer meetingId = msg.getMeetingId();
-        log.info("Worker: processing meeting {}", meetingId);
+        if (stagedPipeline) {
+            // Each stage has its own queue and workers; this queue only feeds the first one
+            meetingJobPublisher.publishStage(new StageMessage(meetingId, PipelineStage.TRANSCODE, null));
+            log.info("Worker: meeting {} queued for the staged pipeline", meetingId);
+            return;
+        }
+        int attempt = attemptHeader == null ? 1 : attemptHeader;
+        log.info("Worker: processing meeting {} (attempt {})", meetingId, attempt);
         try {
-            meetingProcessingService.reprocessMeeting(meetingId);
-            log.info("Worker: meeting {} completed", meetingId);
+            // Returns once the meeting is complete or its long-running transcription is being tracked
+            meetingProcessingService.startProcessing(meetingId, attempt);
+            log.info("Worker: meeting {} handed off", meetingId);
         } catch (Exception e) {
-            log.error("Worker: meeting {} failed: {}", meetingId, e.toString(), e);
-            // persist FAILED status outside rolled back transaction
-            meetingProcessingService.markFailed(meetingId);
+            log.error("Worker: meeting {} failed on attempt {}: {}", meetingId, attempt, e.toString(), e);
+            // The meeting stays PROCESSING while a retry waits (and resumes from its checkpoints);
+            // a missing meeting, file or bad input will not get better by waiting
+            boolean permanent = RetryTopology.isPermanent(e);
+            if (!meetingJobPublisher.retryOrPark(msg, attempt, e, permanent)) {
+                // persist FAILED status outside rolled back transaction
+                meetingProcessingService.markFailed(meetingId);
+            }
         }
     }
 }
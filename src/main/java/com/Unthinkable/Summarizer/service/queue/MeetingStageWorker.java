@@ -0,0 +1,55 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+import com.Unthinkable.Summarizer.service.MeetingPipeline;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+// One listener per pipeline stage, each with its own concurrency, so a slow stage (ASR, SMTP) only
+// holds its own consumers while the others keep draining their queues
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.pipeline.staged", havingValue = "true")
+public class MeetingStageWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingStageWorker.class);
+
+    private final MeetingPipeline pipeline;
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}.transcode", containerFactory = "meetingJobContainerFactory", concurrency = "${app.pipeline.transcode.concurrency:2}")
+    public void transcode(StageMessage msg, @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attempt) {
+        handle(msg, PipelineStage.TRANSCODE, attempt);
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}.transcribe", containerFactory = "meetingJobContainerFactory", concurrency = "${app.pipeline.transcribe.concurrency:4}")
+    public void transcribe(StageMessage msg, @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attempt) {
+        handle(msg, PipelineStage.TRANSCRIBE, attempt);
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}.summarize", containerFactory = "meetingJobContainerFactory", concurrency = "${app.pipeline.summarize.concurrency:4}")
+    public void summarize(StageMessage msg, @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attempt) {
+        handle(msg, PipelineStage.SUMMARIZE, attempt);
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}.persist", containerFactory = "meetingJobContainerFactory", concurrency = "${app.pipeline.persist.concurrency:2}")
+    public void persist(StageMessage msg, @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attempt) {
+        handle(msg, PipelineStage.PERSIST, attempt);
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue}.notify", containerFactory = "meetingJobContainerFactory", concurrency = "${app.pipeline.notify.concurrency:1}")
+    public void notifyOwner(StageMessage msg, @Header(name = RetryTopology.ATTEMPT_HEADER, required = false) Integer attempt) {
+        handle(msg, PipelineStage.NOTIFY, attempt);
+    }
+
+    private void handle(StageMessage msg, PipelineStage queueStage, Integer attempt) {
+        if (msg == null || msg.meetingId() == null || msg.stage() != queueStage) {
+            log.warn("Received invalid {} message: {}", queueStage.key(), msg);
+            return;
+        }
+        pipeline.run(msg, attempt == null ? 1 : attempt);
+    }
+}
@@ -0,0 +1,131 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+import com.Unthinkable.Summarizer.model.OutboxEvent;
+import com.Unthinkable.Summarizer.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Publishes outbox events in batches: claim a batch under a lease, send it all, then wait for the
+// broker's confirms together. Confirmed events are deleted; anything nacked, returned as unroutable
+// or unconfirmed keeps its lease and is sent again once the lease runs out. Delivery is therefore
+// at least once; a duplicate job resumes from the meeting's checkpoints.
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outbox;
+    private final MeetingJobPublisher publisher;
+    private final int batchSize;
+    private final Duration lease;
+    private final long confirmTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outbox,
+                       MeetingJobPublisher publisher,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.lease-seconds:30}") long leaseSeconds,
+                       @Value("${app.outbox.confirm-timeout-ms:10000}") long confirmTimeoutMs) {
+        this.outbox = outbox;
+        this.publisher = publisher;
+        this.batchSize = Math.max(1, batchSize);
+        this.lease = Duration.ofSeconds(Math.max(1, leaseSeconds));
+        this.confirmTimeoutMs = Math.max(1, confirmTimeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:500}", initialDelayString = "${app.outbox.poll-ms:500}")
+    public void drain() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) publish(batch);
+        } while (batch.size() >= batchSize);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = outbox.findReadyIds(now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) return List.of();
+        String token = UUID.randomUUID().toString();
+        if (outbox.claim(ids, token, now, now.plus(lease)) == 0) return List.of();
+        return outbox.findByClaimTokenOrderByEventId(token);
+    }
+
+    private void publish(List<OutboxEvent> batch) {
+        Map<Long, CorrelationData> sent = new LinkedHashMap<>();
+        String sendError = null;
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData("outbox-" + event.getEventId());
+            try {
+                publisher.publishConfirmed(event.getMeetingId(), correlation);
+                sent.put(event.getEventId(), correlation);
+            } catch (Exception e) {
+                // The broker is unreachable; the rest of the batch would fail the same way
+                sendError = e.toString();
+                break;
+            }
+        }
+
+        List<Long> confirmed = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        String lastError = sendError;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (Map.Entry<Long, CorrelationData> e : sent.entrySet()) {
+            String error = awaitConfirm(e.getValue(), deadline);
+            if (error == null) {
+                confirmed.add(e.getKey());
+            } else {
+                failed.add(e.getKey());
+                lastError = error;
+            }
+        }
+        for (OutboxEvent event : batch) {
+            if (!sent.containsKey(event.getEventId())) failed.add(event.getEventId());
+        }
+
+        if (!confirmed.isEmpty()) outbox.deleteAllByIdInBatch(confirmed);
+        if (!failed.isEmpty()) {
+            String error = lastError == null ? "unknown" : lastError;
+            outbox.recordError(failed, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            log.warn("Outbox: {} of {} jobs not confirmed, retrying in {} s: {}", failed.size(), batch.size(),
+                    lease.toSeconds(), error);
+        }
+        log.debug("Outbox: {} jobs confirmed", confirmed.size());
+    }
+
+    // null when the broker acked a routed message, otherwise why not
+    private String awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) return "nacked: " + confirm.getReason();
+            // A return always arrives before the confirm of the same message
+            if (correlation.getReturned() != null) return "unroutable: " + correlation.getReturned().getReplyText();
+            return null;
+        } catch (TimeoutException e) {
+            return "no confirm within " + confirmTimeoutMs + " ms";
+        } catch (ExecutionException e) {
+            return String.valueOf(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+    }
+}
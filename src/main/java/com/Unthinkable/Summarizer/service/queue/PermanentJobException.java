@@ -0,0 +1,10 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+// A meeting job failure that waiting cannot fix (its audio or a stage's input is gone); the job is
+// parked right away instead of going through the retry tiers
+public class PermanentJobException extends IllegalStateException {
+
+    public PermanentJobException(String message) {
+        super(message);
+    }
+}
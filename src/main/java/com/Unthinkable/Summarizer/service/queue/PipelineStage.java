@@ -0,0 +1,22 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+import java.util.Locale;
+
+// Steps of the staged meeting pipeline, in order. Each has its own queue ("<app.rabbitmq.queue>.<key>")
+// bound to the meeting exchange with routing key "<app.rabbitmq.routing>.<key>".
+public enum PipelineStage {
+    TRANSCODE,
+    TRANSCRIBE,
+    SUMMARIZE,
+    PERSIST,
+    NOTIFY;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public PipelineStage next() {
+        PipelineStage[] all = values();
+        return ordinal() + 1 < all.length ? all[ordinal() + 1] : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Delayed retries without holding a worker: a failed job is republished to the exchange of its delay
+// tier, waits in that tier's queue until the TTL expires and is dead-lettered back onto the meeting
+// exchange with its original routing key. After the last tier the message goes to the parking queue.
+//   <exchange>.retry.<delay> (fanout) -> <queue>.retry.<delay> (TTL, DLX = <exchange>)
+//   <queue>.parking
+@Component
+public class RetryTopology {
+
+    public static final String ATTEMPT_HEADER = "x-attempt";
+    public static final String ERROR_HEADER = "x-last-error";
+
+    public record Tier(String label, Duration delay, String exchange, String queue) {}
+
+    private final String exchange;
+    private final String parkingQueue;
+    private final List<Tier> tiers = new ArrayList<>();
+
+    public RetryTopology(@Value("${app.rabbitmq.exchange}") String exchange,
+                         @Value("${app.rabbitmq.queue}") String queue,
+                         @Value("${app.rabbitmq.retry.delays:30s,5m,30m}") List<String> delays) {
+        this.exchange = exchange;
+        this.parkingQueue = queue + ".parking";
+        for (String d : delays) {
+            String label = d.trim();
+            if (label.isEmpty()) continue;
+            tiers.add(new Tier(label, DurationStyle.detectAndParse(label), exchange + ".retry." + label, queue + ".retry." + label));
+        }
+    }
+
+    public String exchange() {
+        return exchange;
+    }
+
+    public List<Tier> tiers() {
+        return List.copyOf(tiers);
+    }
+
+    // Tier that delays the given retry (1 = first retry); empty once the tiers are used up
+    public Optional<Tier> tierFor(int retry) {
+        return retry >= 1 && retry <= tiers.size() ? Optional.of(tiers.get(retry - 1)) : Optional.empty();
+    }
+
+    public String parkingQueue() {
+        return parkingQueue;
+    }
+
+    // Failures that come out the same on every attempt: a missing meeting or bad input
+    // (IllegalArgumentException), a missing file, or one explicitly marked permanent
+    public static boolean isPermanent(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof PermanentJobException || t instanceof IllegalArgumentException
+                    || t instanceof NoSuchFileException || t instanceof FileNotFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,5 @@
+package com.Unthinkable.Summarizer.service.queue;
+
+// Hand-off between pipeline stages: which meeting, which stage should run, and a reference to the
+// previous stage's output (a file path or row id), never the payload itself
+public record StageMessage(Integer meetingId, PipelineStage stage, String ref) {}
@@ -0,0 +1,88 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.provider.AdaptiveConcurrencyLimiter;
+import com.Unthinkable.Summarizer.service.provider.AdaptiveConcurrencyLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void growsWhileSaturatedAndLatencyStable() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 2.0, 0.5);
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.limit(); i++) permits.add(limiter.acquire(0));
+            permits.forEach(p -> p.release(Outcome.SUCCESS, 100));
+        }
+        assertTrue(limiter.limit() > 5, "limit " + limiter.limit());
+        assertTrue(limiter.limit() <= 10);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void doesNotGrowWhenIdleOrSlow() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10, 2.0, 0.5);
+        // One call at a time never uses the limit
+        for (int i = 0; i < 50; i++) limiter.acquire(0).release(Outcome.SUCCESS, 100);
+        assertEquals(4, limiter.limit());
+        // Saturated, but latency far above the baseline
+        for (int round = 0; round < 10; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < 4; i++) permits.add(limiter.acquire(0));
+            permits.forEach(p -> p.release(Outcome.SUCCESS, 1000));
+        }
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void overloadCutsOncePerEpisode() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 16, 2.0, 0.5);
+        List<AdaptiveConcurrencyLimiter.Permit> burst = new ArrayList<>();
+        for (int i = 0; i < 8; i++) burst.add(limiter.acquire(0));
+        // All eight were in flight before the first 429 came back: one cut, not eight
+        burst.forEach(p -> p.release(Outcome.OVERLOADED));
+        assertEquals(4, limiter.limit());
+        // A call started after the cut that is throttled again cuts again
+        limiter.acquire(0).release(Outcome.OVERLOADED);
+        assertEquals(2, limiter.limit());
+        for (int i = 0; i < 5; i++) limiter.acquire(0).release(Outcome.OVERLOADED);
+        assertEquals(1, limiter.limit());
+    }
+
+    @Test
+    void waitersAreAdmittedInOrderAndTimeOut() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 2.0, 0.5);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire(0);
+        assertThrows(IllegalStateException.class, () -> limiter.acquire(20));
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            waiting.add(CompletableFuture.runAsync(() -> {
+                try {
+                    AdaptiveConcurrencyLimiter.Permit p = limiter.acquire(5_000);
+                    order.add(id);
+                    p.release(Outcome.SUCCESS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            // Let each caller join the queue before the next one
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (limiter.queued() < i + 1 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        }
+        held.release(Outcome.SUCCESS);
+        CompletableFuture.allOf(waiting.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2), order);
+        assertEquals(0, limiter.inFlight());
+    }
+}
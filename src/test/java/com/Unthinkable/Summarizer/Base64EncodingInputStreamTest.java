@@ -0,0 +1,45 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.gemini.Base64EncodingInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base64EncodingInputStreamTest {
+
+    @Test
+    void matchesJdkEncoderAcrossChunkBoundaries() throws Exception {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 3, 4, 49151, 49152, 49153, 200_000}) {
+            byte[] raw = new byte[size];
+            random.nextBytes(raw);
+            byte[] encoded;
+            try (InputStream in = new Base64EncodingInputStream(new ByteArrayInputStream(raw))) {
+                encoded = in.readAllBytes();
+            }
+            assertArrayEquals(Base64.getEncoder().encode(raw), encoded, "size " + size);
+            assertEquals(Base64EncodingInputStream.encodedLength(size), encoded.length, "size " + size);
+        }
+    }
+
+    @Test
+    void handlesSourcesThatReturnShortReads() throws Exception {
+        byte[] raw = new byte[100_001];
+        new Random(7).nextBytes(raw);
+        // A source that hands out at most 1000 bytes per read, like a socket or pipe
+        InputStream trickle = new ByteArrayInputStream(raw) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        try (InputStream in = new Base64EncodingInputStream(trickle)) {
+            assertArrayEquals(Base64.getEncoder().encode(raw), in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.DetachingTeeInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetachingTeeInputStreamTest {
+
+    @Test
+    void branchReceivesEveryByteWhenItKeepsUp() throws Exception {
+        byte[] upload = randomBytes(256 * 1024);
+        ByteArrayOutputStream branch = new ByteArrayOutputStream();
+        DetachingTeeInputStream tee = new DetachingTeeInputStream(new ByteArrayInputStream(upload), branch, upload.length);
+        Thread pump = Thread.ofPlatform().start(tee::pump);
+
+        byte[] read = tee.readAllBytes();
+        tee.endBranch();
+        pump.join(5000);
+
+        assertArrayEquals(upload, read);
+        assertFalse(pump.isAlive());
+        assertFalse(tee.detached());
+        assertArrayEquals(upload, branch.toByteArray());
+    }
+
+    @Test
+    void stalledBranchIsDetachedInsteadOfHoldingUpTheUpload() throws Exception {
+        byte[] upload = randomBytes(1024 * 1024);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        OutputStream stalled = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        DetachingTeeInputStream tee = new DetachingTeeInputStream(new ByteArrayInputStream(upload), stalled, 64 * 1024);
+        Thread pump = Thread.ofPlatform().start(tee::pump);
+
+        byte[][] read = new byte[1][];
+        Thread reader = Thread.ofPlatform().start(() -> {
+            try {
+                read[0] = tee.readAllBytes();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        reader.join(5000);
+        assertFalse(reader.isAlive(), "upload must not wait for the branch");
+        tee.endBranch();
+
+        assertArrayEquals(upload, read[0]);
+        assertTrue(tee.detached());
+        release.countDown();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        pump.join(5000);
+        assertFalse(pump.isAlive());
+    }
+
+    @Test
+    void failedBranchStillDeliversTheWholeUpload() throws Exception {
+        byte[] upload = randomBytes(512 * 1024);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        DetachingTeeInputStream tee = new DetachingTeeInputStream(new ByteArrayInputStream(upload), broken, upload.length);
+        Thread pump = Thread.ofPlatform().start(tee::pump);
+
+        byte[] read = tee.readAllBytes();
+        tee.endBranch();
+        pump.join(5000);
+
+        assertArrayEquals(upload, read);
+        assertFalse(pump.isAlive());
+        assertTrue(tee.detached());
+    }
+
+    @Test
+    void detachingEndsThePump() throws Exception {
+        DetachingTeeInputStream tee = new DetachingTeeInputStream(new ByteArrayInputStream(new byte[0]),
+                new ByteArrayOutputStream(), 1024);
+        Thread pump = Thread.ofPlatform().start(tee::pump);
+
+        // Recognition failed before the upload ended
+        tee.detach();
+        pump.join(5000);
+
+        assertFalse(pump.isAlive());
+        assertTrue(tee.detached());
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        new Random(42).nextBytes(b);
+        return b;
+    }
+}
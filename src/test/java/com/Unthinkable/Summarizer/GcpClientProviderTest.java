@@ -0,0 +1,153 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.GcpClientProvider;
+import com.google.auth.Credentials;
+import com.google.cloud.speech.v1.SpeechClient;
+import com.google.cloud.speech.v1.stub.SpeechStub;
+import com.google.cloud.storage.Storage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcpClientProviderTest {
+
+    private final List<FakeSpeech> built = new CopyOnWriteArrayList<>();
+    private Path credentials;
+    private GcpClientProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        credentials = Files.createTempFile("cred", ".json");
+        provider = new GcpClientProvider() {
+            @Override
+            protected Path tryResolveCredentialsPath() {
+                return credentials;
+            }
+
+            @Override
+            protected Credentials resolveCredentials(Path source) {
+                return null;
+            }
+
+            @Override
+            protected SpeechClient createSpeech(Credentials creds) {
+                FakeSpeech speech = new FakeSpeech();
+                built.add(speech);
+                return SpeechClient.create(speech);
+            }
+
+            @Override
+            protected Storage createStorage(Credentials creds) {
+                FakeSpeech speech = built.get(built.size() - 1);
+                return (Storage) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Storage.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("close")) {
+                                speech.storageClosed.countDown();
+                                return null;
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        });
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(credentials);
+    }
+
+    @Test
+    void leasesShareOneGenerationUntilCredentialsChange() throws Exception {
+        try (GcpClientProvider.Lease first = provider.lease(); GcpClientProvider.Lease second = provider.lease()) {
+            assertSame(first.speech(), second.speech());
+            assertSame(first.storage(), second.storage());
+        }
+        assertEquals(1, built.size());
+        assertEquals(0, built.get(0).shutdowns.get());
+    }
+
+    @Test
+    void retiredClientsCloseOnlyAfterTheirLastLease() throws Exception {
+        GcpClientProvider.Lease old = provider.lease();
+        rotateCredentials();
+
+        try (GcpClientProvider.Lease fresh = provider.lease()) {
+            assertEquals(2, built.size());
+            assertNotSame(old.speech(), fresh.speech());
+        }
+        // A call that started on the old clients is still running
+        assertFalse(built.get(0).storageClosed.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, built.get(0).shutdowns.get());
+
+        old.close();
+        old.close();
+        assertTrue(built.get(0).storageClosed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, built.get(0).shutdowns.get());
+        assertEquals(0, built.get(1).shutdowns.get());
+    }
+
+    @Test
+    void unusedClientsCloseAsSoonAsTheyAreReplaced() throws Exception {
+        provider.lease().close();
+        rotateCredentials();
+
+        provider.lease().close();
+
+        assertTrue(built.get(0).storageClosed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, built.get(0).shutdowns.get());
+    }
+
+    private void rotateCredentials() throws Exception {
+        FileTime modified = Files.getLastModifiedTime(credentials);
+        Files.setLastModifiedTime(credentials, FileTime.fromMillis(modified.toMillis() + 60_000));
+    }
+
+    private static final class FakeSpeech extends SpeechStub {
+        final AtomicInteger shutdowns = new AtomicInteger();
+        final CountDownLatch storageClosed = new CountDownLatch(1);
+        volatile boolean shutdown;
+
+        @Override
+        public void close() {
+            shutdown();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdowns.incrementAndGet();
+            shutdown = true;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public void shutdownNow() {
+            shutdown = true;
+        }
+
+        @Override
+        public boolean awaitTermination(long duration, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+}
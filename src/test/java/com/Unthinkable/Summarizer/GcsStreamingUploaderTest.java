@@ -0,0 +1,141 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.GcsStreamingUploader;
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcsStreamingUploaderTest {
+
+    private static final int CHUNK = 256 * 1024;
+
+    // Resumable upload as GCS sees it: bytes land at the writer's offset, a restored writer continues
+    // from its captured offset, and closing a writer commits whatever is there
+    private final ByteArrayOutputStream object = new ByteArrayOutputStream();
+    private final List<BlobId> deleted = new ArrayList<>();
+    private int writes;
+    private int failOnWrite = -1;
+    private int closes;
+
+    @Test
+    void transientFailureResumesFromTheLastCapturedBuffer() throws Exception {
+        byte[] audio = randomBytes(3 * CHUNK + 1000);
+        failOnWrite = 2;
+        List<Long> progress = new ArrayList<>();
+
+        new GcsStreamingUploader(null, CHUNK, 3).upload(storage(), Channels.newChannel(new ByteArrayInputStream(audio)),
+                audio.length, "bucket", "audio.pcm", (sent, total) -> progress.add(sent));
+
+        assertArrayEquals(audio, object.toByteArray());
+        assertEquals(List.of((long) CHUNK, 2L * CHUNK, 3L * CHUNK, (long) audio.length), progress);
+        assertTrue(deleted.isEmpty());
+    }
+
+    @Test
+    void uploadThatRunsOutOfResumesIsDeleted() {
+        byte[] audio = randomBytes(2 * CHUNK);
+        failOnWrite = 1;
+
+        IOException e = assertThrows(IOException.class, () -> new GcsStreamingUploader(null, CHUNK, 0).upload(storage(),
+                Channels.newChannel(new ByteArrayInputStream(audio)), audio.length, "bucket", "audio.pcm", null));
+
+        assertEquals("connection reset", e.getMessage());
+        assertEquals(1, closes);
+        assertEquals(List.of(BlobId.of("bucket", "audio.pcm")), deleted);
+    }
+
+    @Test
+    void failingSourceAbandonsTheUpload() {
+        InputStream broken = new InputStream() {
+            private int served;
+
+            @Override
+            public int read() throws IOException {
+                if (served++ < CHUNK) return 7;
+                throw new IOException("ffmpeg exited with 1");
+            }
+        };
+
+        assertThrows(IOException.class, () -> new GcsStreamingUploader(null, CHUNK, 3).upload(storage(),
+                Channels.newChannel(broken), -1L, "bucket", "audio.pcm", null));
+
+        assertEquals(1, closes);
+        assertEquals(List.of(BlobId.of("bucket", "audio.pcm")), deleted);
+    }
+
+    private Storage storage() {
+        return (Storage) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Storage.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "writer" -> writer(0);
+                    case "delete" -> {
+                        deleted.add((BlobId) args[0]);
+                        yield true;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteChannel writer(int offset) {
+        truncate(offset);
+        return (WriteChannel) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WriteChannel.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "write" -> {
+                        ByteBuffer buffer = (ByteBuffer) args[0];
+                        int n = buffer.remaining();
+                        if (writes++ == failOnWrite) {
+                            // Half of the buffer got through before the connection dropped
+                            copy(buffer, n / 2);
+                            throw new IOException("connection reset");
+                        }
+                        copy(buffer, n);
+                        yield n;
+                    }
+                    case "capture" -> {
+                        int captured = object.size();
+                        yield (RestorableState<WriteChannel>) () -> writer(captured);
+                    }
+                    case "close" -> {
+                        closes++;
+                        yield null;
+                    }
+                    case "setChunkSize" -> null;
+                    case "isOpen" -> true;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void copy(ByteBuffer buffer, int n) {
+        byte[] bytes = new byte[n];
+        buffer.get(bytes);
+        object.writeBytes(bytes);
+    }
+
+    private void truncate(int offset) {
+        byte[] kept = Arrays.copyOf(object.toByteArray(), offset);
+        object.reset();
+        object.writeBytes(kept);
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        new Random(7).nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,88 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.IncrementalSummaryParser;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalSummaryParserTest {
+
+    private static final String ANSWER = "```json\n{\"summaryText\": \"Release moves to Friday.\\nDocs \\u2014 Charlie.\", "
+            + "\"keyDecisions\": [\"Ship Friday\", \"Freeze Thursday\"], "
+            + "\"actionItems\": [{\"description\": \"Write docs\", \"assignedTo\": \"Charlie\", \"dueDate\": \"2025-03-14\"}, "
+            + "{\"description\": \"Tag release\", \"assignedTo\": null, \"dueDate\": null}]}\n```";
+
+    @Test
+    void summaryTextGrowsBeforeTheObjectIsComplete() {
+        IncrementalSummaryParser parser = new IncrementalSummaryParser();
+        assertNull(parser.feed("```json\n{\"summ"));
+        SummaryResult partial = parser.feed("aryText\": \"Release mo");
+        assertNotNull(partial);
+        assertEquals("Release mo", partial.getSummaryText());
+        assertTrue(partial.getActionItems().isEmpty());
+    }
+
+    @Test
+    void actionItemsAppearOnlyOnceClosed() {
+        IncrementalSummaryParser parser = new IncrementalSummaryParser();
+        int cut = ANSWER.indexOf("\"Tag release\"") + 5;
+        parser.feed(ANSWER.substring(0, cut));
+
+        SummaryResult partial = parser.current();
+        assertEquals("Release moves to Friday.\nDocs — Charlie.", partial.getSummaryText());
+        assertEquals("Ship Friday\nFreeze Thursday", partial.getKeyDecisions());
+        assertEquals(1, partial.getActionItems().size());
+        assertEquals("Charlie", partial.getActionItems().get(0).getAssignedTo());
+        assertEquals(LocalDate.of(2025, 3, 14), partial.getActionItems().get(0).getDueDate());
+
+        parser.feed(ANSWER.substring(cut));
+        assertEquals(2, parser.current().getActionItems().size());
+        assertNull(parser.current().getActionItems().get(1).getAssignedTo());
+        assertEquals(ANSWER, parser.text());
+    }
+
+    @Test
+    void anySplitConvergesOnTheSameResult() {
+        IncrementalSummaryParser whole = new IncrementalSummaryParser();
+        whole.feed(ANSWER);
+        SummaryResult expected = whole.current();
+
+        for (int step = 1; step <= 7; step++) {
+            IncrementalSummaryParser parser = new IncrementalSummaryParser();
+            List<String> summaries = new ArrayList<>();
+            for (int i = 0; i < ANSWER.length(); i += step) {
+                SummaryResult r = parser.feed(ANSWER.substring(i, Math.min(ANSWER.length(), i + step)));
+                if (r != null && r.getSummaryText() != null) summaries.add(r.getSummaryText());
+            }
+            assertEquals(expected, parser.current());
+            // Text only ever grows (escapes are never shown half-decoded)
+            for (int i = 1; i < summaries.size(); i++) {
+                assertTrue(summaries.get(i).startsWith(summaries.get(i - 1)), summaries.get(i - 1) + " -> " + summaries.get(i));
+            }
+        }
+    }
+
+    @Test
+    void agreesWithTheFinalDecodeOnLenientJson() {
+        String answer = "Sure:\n```json\n{'summaryText': \"Caf\u00e9 \u2615 moved\", // note\n"
+                + "\"extra\": {\"nested\": [1, {\"x\": null}]},\n"
+                + "\"actionItems\": [\"Email customers\", {\"description\": \"Tag\", \"dueDate\": \"2025-02-30\"},],}\n```";
+        SummaryResult expected = SummaryResultDecoder.decode(answer);
+
+        for (int step = 1; step <= 5; step++) {
+            IncrementalSummaryParser parser = new IncrementalSummaryParser();
+            for (int i = 0; i < answer.length(); i += step) {
+                parser.feed(answer.substring(i, Math.min(answer.length(), i + step)));
+            }
+            SummaryResult r = parser.current();
+            assertEquals(expected.getSummaryText(), r.getSummaryText());
+            assertEquals(expected.getActionItems(), r.getActionItems());
+        }
+    }
+}
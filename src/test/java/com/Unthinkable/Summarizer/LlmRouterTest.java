@@ -0,0 +1,125 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.LlmProvider;
+import com.Unthinkable.Summarizer.service.llm.LlmRouter;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmRouterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void failsOverToTheNextProvider() throws Exception {
+        FakeProvider a = new FakeProvider("gemini", 0);
+        FakeProvider b = new FakeProvider("openai", 0);
+        a.failing.set(true);
+        LlmRouter router = router("gemini,openai", false, a, b);
+
+        LlmRouter.Routed routed = router.summarize("sys", "user", null);
+
+        assertSame(b, routed.provider());
+        assertEquals("openai", routed.result().getSummaryText());
+        assertEquals(1.0, registry.counter("llm.router.decisions", "provider", "openai", "decision", "failover").count(), 0.0);
+    }
+
+    @Test
+    void routesAwayFromAFailingProviderOnceMeasured() throws Exception {
+        FakeProvider a = new FakeProvider("gemini", 0);
+        FakeProvider b = new FakeProvider("openai", 0);
+        a.failing.set(true);
+        LlmRouter router = router("gemini,openai", false, a, b);
+
+        for (int i = 0; i < 3; i++) router.summarize("sys", "user", null);
+        a.failing.set(false);
+        int callsOnA = a.calls.get();
+        for (int i = 0; i < 3; i++) {
+            assertSame(b, router.summarize("sys", "user", null).provider());
+        }
+        assertEquals(callsOnA, a.calls.get());
+    }
+
+    @Test
+    void hedgesASlowCallOnTheNextProvider() throws Exception {
+        FakeProvider slow = new FakeProvider("gemini", 5_000);
+        FakeProvider fast = new FakeProvider("openai", 10);
+        LlmRouter router = router("gemini,openai", true, slow, fast);
+
+        long start = System.nanoTime();
+        LlmRouter.Routed routed = router.summarize("sys", "user", null);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertSame(fast, routed.provider());
+        assertTrue(elapsedMs < 2_000, "took " + elapsedMs + " ms");
+        assertEquals(1.0, registry.counter("llm.router.decisions", "provider", "openai", "decision", "hedge").count(), 0.0);
+        // The losing request is cancelled
+        Thread.sleep(100);
+        assertTrue(slow.interrupted.get());
+    }
+
+    @Test
+    void reportsTheMissingConfigurationWhenNothingIsConfigured() {
+        FakeProvider a = new FakeProvider("gemini", 0);
+        a.configured = false;
+        LlmRouter router = router("gemini", false, a);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> router.summarize("sys", "user", null));
+        assertTrue(ex.getMessage().contains("not configured"));
+    }
+
+    private LlmRouter router(String names, boolean hedge, LlmProvider... providers) {
+        return new LlmRouter(List.of(providers), registry, names, 100, 300_000, 2, 0.5, hedge, 100);
+    }
+
+    private static class FakeProvider implements LlmProvider {
+        final String name;
+        final long latencyMs;
+        final AtomicBoolean failing = new AtomicBoolean();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final AtomicInteger calls = new AtomicInteger();
+        boolean configured = true;
+
+        FakeProvider(String name, long latencyMs) {
+            this.name = name;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String model() {
+            return name + "-model";
+        }
+
+        @Override
+        public boolean isConfigured() {
+            return configured;
+        }
+
+        @Override
+        public SummaryResult summarize(String systemPrompt, String userPrompt) throws Exception {
+            if (!configured) throw new IllegalStateException(name + " API key not configured");
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                throw e;
+            }
+            if (failing.get()) throw new IllegalStateException(name + " returned 503");
+            SummaryResult result = new SummaryResult();
+            result.setSummaryText(name);
+            return result;
+        }
+    }
+}
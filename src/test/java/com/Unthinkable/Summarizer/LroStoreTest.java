@@ -0,0 +1,73 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.LroStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LroStoreTest {
+
+    @Test
+    void survivesRestartAndSharesStateBetweenStores() throws Exception {
+        Path dir = Files.createTempDirectory("lro-store");
+        LroStore first = new LroStore(dir.toString(), 1000);
+        first.put(1, entry("op-1"));
+        first.put(2, entry("op-2"));
+        first.remove(1);
+
+        LroStore second = new LroStore(dir.toString(), 1000);
+        assertEquals(Map.of(2, entry("op-2")), second.getAll());
+
+        second.put(3, entry("op-3"));
+        assertTrue(first.getAll().containsKey(3));
+    }
+
+    @Test
+    void onlyOneStoreClaimsACompletedOperation() throws Exception {
+        Path dir = Files.createTempDirectory("lro-store");
+        LroStore a = new LroStore(dir.toString(), 1000);
+        LroStore b = new LroStore(dir.toString(), 1000);
+        a.put(7, entry("op-7"));
+
+        assertFalse(b.removeIfPresent(7, "other-op"));
+        assertTrue(b.removeIfPresent(7, "op-7"));
+        assertFalse(a.removeIfPresent(7, "op-7"));
+        // A stale poll result must not bring the entry back
+        assertFalse(a.updateIfPresent(7, entry("op-7")));
+        assertTrue(a.getAll().isEmpty());
+    }
+
+    @Test
+    void compactsOnceDeadRecordsDominate() throws Exception {
+        Path dir = Files.createTempDirectory("lro-store");
+        LroStore store = new LroStore(dir.toString(), 10);
+        store.put(1, entry("keep"));
+        for (int i = 100; i < 150; i++) {
+            store.put(i, entry("op-" + i));
+            store.remove(i);
+        }
+
+        long lines = Files.readAllLines(dir.resolve("lro-jobs.journal")).size();
+        assertTrue(lines < 15, "journal has " + lines + " lines");
+        assertEquals(Map.of(1, entry("keep")), new LroStore(dir.toString(), 10).getAll());
+    }
+
+    @Test
+    void migratesLegacyJsonFile() throws Exception {
+        Path dir = Files.createTempDirectory("lro-store");
+        Files.writeString(dir.resolve("lro-jobs.json"), "{\"5\":{\"operationName\":\"op-5\",\"gcsUri\":\"gs://b/o\"}}");
+
+        LroStore store = new LroStore(dir.toString(), 1000);
+
+        assertEquals("gs://b/o", store.getAll().get(5).getGcsUri());
+        assertFalse(Files.exists(dir.resolve("lro-jobs.json")));
+    }
+
+    private static LroStore.Entry entry(String operationName) {
+        return new LroStore.Entry(operationName, "gs://bucket/" + operationName, null, 1L, 2L, 0, 1);
+    }
+}
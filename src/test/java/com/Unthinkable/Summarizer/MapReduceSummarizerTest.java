@@ -0,0 +1,78 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.MapReduceSummarizer;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapReduceSummarizerTest {
+
+    @Test
+    void shortTranscriptUsesOneCall() throws Exception {
+        MapReduceSummarizer summarizer = new MapReduceSummarizer(1000, 500, 2);
+        AtomicInteger calls = new AtomicInteger();
+
+        SummaryResult r = summarizer.summarize("Alice: ship it Friday.", (system, user) -> {
+            calls.incrementAndGet();
+            return result("whole", List.of());
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals("whole", r.getSummaryText());
+    }
+
+    @Test
+    void longTranscriptIsMappedInParallelAndReducedOnce() throws Exception {
+        MapReduceSummarizer summarizer = new MapReduceSummarizer(1000, 500, 3);
+        String transcript = "Bob: we should update the release notes. ".repeat(400); // ~4000 tokens
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger maps = new AtomicInteger();
+        List<String> reducePrompts = new ArrayList<>();
+
+        SummaryResult r = summarizer.summarize(transcript, (system, user) -> {
+            if (user.startsWith("These are summaries")) {
+                reducePrompts.add(user);
+                return result("merged", List.of());
+            }
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            int n = maps.incrementAndGet();
+            return result("part", List.of(
+                    new SummaryResult.ActionItemSuggestion("Update the release notes.", n == 2 ? "Bob" : null, null),
+                    new SummaryResult.ActionItemSuggestion("update the release-notes", null, n == 3 ? LocalDate.of(2025, 1, 31) : null)));
+        });
+
+        assertTrue(maps.get() >= 8, "windows: " + maps.get());
+        assertTrue(peak.get() <= 3, "peak in flight: " + peak.get());
+        assertEquals(1, reducePrompts.size());
+        assertEquals("merged", r.getSummaryText());
+        assertEquals(1, r.getActionItems().size());
+        assertEquals("Bob", r.getActionItems().get(0).getAssignedTo());
+        assertEquals(LocalDate.of(2025, 1, 31), r.getActionItems().get(0).getDueDate());
+    }
+
+    @Test
+    void windowsRespectBudgetAndCutAtSentences() {
+        String text = "One two three. ".repeat(100);
+        List<String> windows = MapReduceSummarizer.windows(text, 50);
+
+        assertTrue(windows.size() > 1);
+        for (String w : windows) {
+            assertTrue(w.length() <= 200);
+            assertTrue(w.endsWith("."), w);
+        }
+        assertEquals(text.trim().replace(" ", ""), String.join("", windows).replace(" ", ""));
+    }
+
+    private static SummaryResult result(String text, List<SummaryResult.ActionItemSuggestion> items) {
+        return new SummaryResult(text, "", new ArrayList<>(items));
+    }
+}
@@ -0,0 +1,82 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.openai.MultipartBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartBodyTest {
+
+    @Test
+    void streamsFieldsAndFileWithExactLength() throws Exception {
+        Path audio = Files.createTempFile("multipart", ".mp3");
+        try {
+            byte[] content = new byte[300_000];
+            for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+            Files.write(audio, content);
+
+            MultipartBody body = new MultipartBody()
+                    .file("file", audio, "application/octet-stream")
+                    .field("model", "whisper-1");
+            String boundary = body.contentType().substring(body.contentType().indexOf("boundary=") + 9);
+            HttpRequest.BodyPublisher publisher = body.publisher();
+            byte[] sent = collect(publisher);
+
+            assertEquals(sent.length, publisher.contentLength());
+            String head = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\""
+                    + audio.getFileName() + "\"\r\nContent-Type: application/octet-stream\r\n\r\n";
+            String tail = "\r\n--" + boundary + "\r\nContent-Disposition: form-data; name=\"model\"\r\n\r\nwhisper-1\r\n--"
+                    + boundary + "--\r\n";
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write(head.getBytes(StandardCharsets.UTF_8));
+            expected.write(content);
+            expected.write(tail.getBytes(StandardCharsets.UTF_8));
+            assertArrayEquals(expected.toByteArray(), sent);
+
+            // A retry subscribes again and must see the same bytes
+            assertArrayEquals(sent, collect(publisher));
+        } finally {
+            Files.deleteIfExists(audio);
+        }
+    }
+
+    private static byte[] collect(HttpRequest.BodyPublisher publisher) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] b = new byte[item.remaining()];
+                item.get(b);
+                out.writeBytes(b);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(10, TimeUnit.SECONDS);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,142 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.ollama.OllamaClient;
+import com.Unthinkable.Summarizer.service.provider.ConcurrencyLimiters;
+import com.Unthinkable.Summarizer.service.provider.ProviderTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaClientTest {
+
+    private static final String ANSWER = "{\"summaryText\":\"Ship Friday\",\"keyDecisions\":\"Release on Friday\","
+            + "\"actionItems\":[{\"description\":\"Write docs\",\"assignedTo\":\"Charlie\",\"dueDate\":\"2025-03-14\"}]}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverThreads;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        server.createContext("/api/generate", exchange -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                requests.add(mapper.readTree(exchange.getRequestBody()));
+                Thread.sleep(50);
+                byte[] body = mapper.writeValueAsBytes(mapper.createObjectNode().put("response", ANSWER).put("done", true));
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void sendsJsonFormatKeepAliveAndScaledContext() throws Exception {
+        OllamaClient client = client("ollama=1");
+
+        SummaryResult small = client.summarize("Alice: ship it Friday.");
+        client.summarize("word ".repeat(40_000));
+
+        assertEquals("Ship Friday", small.getSummaryText());
+        assertEquals(1, small.getActionItems().size());
+        assertEquals(LocalDate.of(2025, 3, 14), small.getActionItems().get(0).getDueDate());
+
+        JsonNode first = requests.get(0);
+        assertEquals("llama3.1", first.path("model").asText());
+        assertEquals("json", first.path("format").asText());
+        assertEquals("30m", first.path("keep_alive").asText());
+        assertFalse(first.path("stream").asBoolean(true));
+        assertEquals(4096, first.path("options").path("num_ctx").asInt());
+        // ~50k prompt tokens: next power of two, capped at num-ctx-max
+        assertEquals(32768, requests.get(1).path("options").path("num_ctx").asInt());
+    }
+
+    @Test
+    void ollamaLimitCapsConcurrentRequests() throws Exception {
+        OllamaClient client = client("ollama=2");
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<SummaryResult>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(pool.submit(() -> client.summarize("meeting " + System.nanoTime())));
+            }
+            for (Future<SummaryResult> f : results) {
+                assertEquals("Ship Friday", f.get().getSummaryText());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(6, requests.size());
+        assertTrue(maxInFlight.get() <= 2, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void limitOfOneRunsOneGenerationAtATime() throws Exception {
+        OllamaClient client = client("ollama=1");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SummaryResult>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> client.summarize("meeting " + System.nanoTime())));
+            }
+            for (Future<SummaryResult> f : results) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    void warmUpLoadsModelWithoutPrompt() throws Exception {
+        client("ollama=1").warmUp();
+
+        assertEquals(1, requests.size());
+        assertTrue(requests.get(0).path("prompt").isMissingNode());
+        assertEquals("30m", requests.get(0).path("keep_alive").asText());
+    }
+
+    private OllamaClient client(String providerMax) {
+        ConcurrencyLimiters limiters = new ConcurrencyLimiters(new SimpleMeterRegistry(), 4, 1, 32, 10_000, 2.0, 0.5, providerMax);
+        ProviderTransport transport = new ProviderTransport(limiters, 0, 10, 10, 5, 1000);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        return new OllamaClient(transport, url, "llama3.1", "30m", 4096, 32768, 30);
+    }
+}
@@ -0,0 +1,87 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.ParallelChunkRecognizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelChunkRecognizerTest {
+
+    @Test
+    void keepsChunkOrderAndBoundsInFlight() throws Exception {
+        ParallelChunkRecognizer recognizer = new ParallelChunkRecognizer(3, 0, 0);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> chunks = IntStream.range(0, 20).boxed().toList();
+
+        List<String> parts = recognizer.recognizeAll(chunks, (index, chunk) -> {
+            int now = inFlight.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            Thread.sleep(20 - chunk); // later chunks finish first
+            inFlight.decrementAndGet();
+            return "part-" + chunk;
+        });
+
+        assertEquals(20, parts.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("part-" + i, parts.get(i));
+        }
+        assertTrue(peak.get() <= 3, "peak in-flight was " + peak.get());
+    }
+
+    @Test
+    void sessionWindowOverridesTheDefault() throws Exception {
+        ParallelChunkRecognizer recognizer = new ParallelChunkRecognizer(8, 0, 0);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<String> parts;
+        try (ParallelChunkRecognizer.Session<Integer> session = recognizer.open((index, chunk) -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return "part-" + chunk;
+        }, 2)) {
+            for (int i = 0; i < 10; i++) {
+                session.submit(i);
+            }
+            parts = session.finish();
+        }
+
+        assertEquals(10, parts.size());
+        assertEquals("part-9", parts.get(9));
+        assertTrue(peak.get() <= 2, "peak in-flight was " + peak.get());
+    }
+
+    @Test
+    void retriesFailedChunks() throws Exception {
+        ParallelChunkRecognizer recognizer = new ParallelChunkRecognizer(4, 2, 0);
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+        List<String> parts = recognizer.recognizeAll(List.of("a", "b", "c"), (index, chunk) -> {
+            int n = attempts.computeIfAbsent(index, k -> new AtomicInteger()).incrementAndGet();
+            if (index == 1 && n < 3) throw new IllegalStateException("transient");
+            return chunk;
+        });
+
+        assertEquals(List.of("a", "b", "c"), parts);
+        assertEquals(3, attempts.get(1).get());
+    }
+
+    @Test
+    void failsAfterRetriesExhausted() {
+        ParallelChunkRecognizer recognizer = new ParallelChunkRecognizer(2, 1, 0);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> recognizer.recognizeAll(List.of("a", "b"), (index, chunk) -> {
+                    if (index == 0) throw new IllegalStateException("down");
+                    return chunk;
+                }));
+        assertTrue(ex.getMessage().contains("chunk 0"));
+    }
+}
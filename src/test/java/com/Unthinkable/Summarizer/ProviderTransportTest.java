@@ -0,0 +1,144 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.provider.CircuitBreaker;
+import com.Unthinkable.Summarizer.service.provider.ConcurrencyLimiters;
+import com.Unthinkable.Summarizer.service.provider.ProviderTransport;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderTransportTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int failFirst;
+    private volatile String retryAfter;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int n = hits.incrementAndGet();
+            byte[] body;
+            if (n <= failFirst) {
+                if (retryAfter != null) exchange.getResponseHeaders().add("Retry-After", retryAfter);
+                body = "busy".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(retryAfter != null ? 429 : 503, body.length);
+            } else {
+                body = "ok".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+            }
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesServerErrorsUntilSuccess() throws Exception {
+        failFirst = 2;
+        ProviderTransport transport = transport(3, 5, 20, 5, 30_000);
+
+        HttpResponse<String> resp = transport.send("test", "call", request());
+
+        assertEquals(200, resp.statusCode());
+        assertEquals("ok", resp.body());
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, transport.circuitState("test"));
+    }
+
+    @Test
+    void honorsRetryAfter() throws Exception {
+        failFirst = 1;
+        retryAfter = "1";
+        ProviderTransport transport = transport(2, 5, 5_000, 5, 30_000);
+
+        long start = System.nanoTime();
+        HttpResponse<String> resp = transport.send("test", "call", request());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(200, resp.statusCode());
+        assertTrue(elapsedMs >= 900, "waited " + elapsedMs + " ms");
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailures() throws Exception {
+        failFirst = Integer.MAX_VALUE;
+        ProviderTransport transport = transport(0, 5, 20, 2, 60_000);
+
+        assertEquals(503, transport.send("test", "call", request()).statusCode());
+        assertEquals(503, transport.send("test", "call", request()).statusCode());
+        assertEquals(CircuitBreaker.State.OPEN, transport.circuitState("test"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> transport.send("test", "call", request()));
+        assertTrue(ex.getMessage().contains("circuit open"));
+        assertEquals(2, hits.get());
+        // Other providers are unaffected
+        assertEquals(CircuitBreaker.State.CLOSED, transport.circuitState("other"));
+    }
+
+    @Test
+    void streamedBodyHoldsItsSlotUntilClosed() throws Exception {
+        ConcurrencyLimiters limiters = limiters();
+        ProviderTransport transport = new ProviderTransport(limiters, 0, 5, 20, 5, 30_000);
+
+        HttpResponse<InputStream> resp = transport.send("test", "stream", request(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, resp.statusCode());
+        assertEquals(1, limiters.forOperation("test", "stream").inFlight());
+        // Other operations of the same provider have their own limit
+        assertEquals(0, limiters.forOperation("test", "call").inFlight());
+
+        try (InputStream body = resp.body()) {
+            assertEquals("ok", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(0, limiters.forOperation("test", "stream").inFlight());
+
+        transport.send("test", "stream", request());
+        assertEquals(0, limiters.forOperation("test", "stream").inFlight());
+    }
+
+    @Test
+    void halfOpenProbeClosesCircuitOnSuccess() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private HttpRequest request() {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+    }
+
+    private static ProviderTransport transport(int maxRetries, long backoffBaseMs, long backoffMaxMs,
+                                               int breakerThreshold, long breakerOpenMs) {
+        return new ProviderTransport(limiters(), maxRetries, backoffBaseMs, backoffMaxMs, breakerThreshold, breakerOpenMs);
+    }
+
+    private static ConcurrencyLimiters limiters() {
+        return new ConcurrencyLimiters(new SimpleMeterRegistry(), 4, 1, 32, 10_000, 2.0, 0.5, "");
+    }
+}
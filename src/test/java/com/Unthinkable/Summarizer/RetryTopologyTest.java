@@ -0,0 +1,48 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.queue.PermanentJobException;
+import com.Unthinkable.Summarizer.service.queue.RetryTopology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTopologyTest {
+
+    @Test
+    void mapsEachRetryToItsDelayTier() {
+        RetryTopology topology = new RetryTopology("meeting.exchange", "meeting.jobs", List.of("30s", " 5m", "30m", ""));
+
+        assertEquals(3, topology.tiers().size());
+        RetryTopology.Tier first = topology.tierFor(1).orElseThrow();
+        assertEquals(Duration.ofSeconds(30), first.delay());
+        assertEquals("meeting.exchange.retry.30s", first.exchange());
+        assertEquals("meeting.jobs.retry.30s", first.queue());
+        assertEquals(Duration.ofMinutes(5), topology.tierFor(2).orElseThrow().delay());
+        assertEquals("meeting.jobs.retry.30m", topology.tierFor(3).orElseThrow().queue());
+        assertEquals("meeting.jobs.parking", topology.parkingQueue());
+    }
+
+    @Test
+    void noTierOnceRetriesAreUsedUp() {
+        RetryTopology topology = new RetryTopology("meeting.exchange", "meeting.jobs", List.of("30s", "5m"));
+
+        assertTrue(topology.tierFor(0).isEmpty());
+        assertTrue(topology.tierFor(3).isEmpty());
+        assertTrue(new RetryTopology("x", "q", List.of()).tierFor(1).isEmpty());
+    }
+
+    @Test
+    void deterministicFailuresArePermanent() {
+        assertTrue(RetryTopology.isPermanent(new IllegalArgumentException("Meeting not found")));
+        assertTrue(RetryTopology.isPermanent(new PermanentJobException("No transcript stored")));
+        assertTrue(RetryTopology.isPermanent(new IllegalStateException("decode failed", new NoSuchFileException("a.wav"))));
+
+        assertFalse(RetryTopology.isPermanent(new IllegalStateException("429 Too Many Requests")));
+        assertFalse(RetryTopology.isPermanent(new IOException("Connection reset")));
+    }
+}
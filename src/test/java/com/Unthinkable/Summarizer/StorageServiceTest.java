@@ -0,0 +1,33 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.StorageService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageServiceTest {
+
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Test
+    void hashesAudioWhileStoringIt() throws Exception {
+        Path dir = Files.createTempDirectory("storage-test");
+        StorageService storage = new StorageService(dir.toString());
+        byte[] data = "abc".getBytes(StandardCharsets.US_ASCII);
+
+        StorageService.StoredAudio fromStream = storage.saveAudioFromStream(7, new ByteArrayInputStream(data), "m.mp3");
+        StorageService.StoredAudio fromBytes = storage.saveAudioFromBytes(7, data, "m.mp3");
+
+        assertEquals(ABC_SHA256, fromStream.sha256());
+        assertEquals(ABC_SHA256, fromBytes.sha256());
+        assertEquals(3L, fromStream.sizeBytes());
+        assertArrayEquals(data, Files.readAllBytes(fromStream.path()));
+        assertTrue(fromStream.path().getFileName().toString().endsWith(".mp3"));
+        assertEquals(ABC_SHA256, storage.sha256(fromStream.path()));
+    }
+}
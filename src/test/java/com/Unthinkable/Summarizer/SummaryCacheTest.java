@@ -0,0 +1,121 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.model.SummaryCacheEntry;
+import com.Unthinkable.Summarizer.repository.SummaryCacheRepository;
+import com.Unthinkable.Summarizer.service.llm.LlmProvider;
+import com.Unthinkable.Summarizer.service.llm.SummaryCache;
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryCacheTest {
+
+    private final List<SummaryCacheEntry> table = new ArrayList<>();
+    private final AtomicInteger tableReads = new AtomicInteger();
+    private final LlmProvider gemini = provider("gemini", "gemini-2.0-flash");
+
+    @Test
+    void memoryKeepsTheMostRecentlyUsedEntries() throws Exception {
+        SummaryCache cache = newCache(2, false, 6000);
+        cache.store("meeting a", gemini, summary("A"));
+        cache.store("meeting b", gemini, summary("B"));
+        // Touching A makes B the eldest
+        assertEquals("A", cache.lookup("meeting a", List.of(gemini)).orElseThrow().getSummaryText());
+
+        cache.store("meeting c", gemini, summary("C"));
+
+        assertTrue(cache.lookup("meeting b", List.of(gemini)).isEmpty());
+        assertEquals("A", cache.lookup("meeting a", List.of(gemini)).orElseThrow().getSummaryText());
+        assertEquals("C", cache.lookup("meeting c", List.of(gemini)).orElseThrow().getSummaryText());
+        assertEquals(0, tableReads.get());
+    }
+
+    @Test
+    void persistentEntriesOutliveTheProcess() throws Exception {
+        newCache(16, true, 6000).store("meeting a", gemini, summary("A"));
+        assertEquals(1, table.size());
+
+        // A restarted instance, with the other provider listed first
+        SummaryCache restarted = newCache(16, true, 6000);
+        SummaryResult found = restarted.lookup("meeting a", List.of(provider("openai", "gpt-4o-mini"), gemini)).orElseThrow();
+        assertEquals("A", found.getSummaryText());
+        int reads = tableReads.get();
+
+        // Now served from memory
+        assertEquals("A", restarted.lookup("meeting a", List.of(gemini)).orElseThrow().getSummaryText());
+        assertEquals(reads, tableReads.get());
+    }
+
+    @Test
+    void otherMapReduceSettingsMissOldEntries() throws Exception {
+        newCache(16, true, 6000).store("meeting a", gemini, summary("A"));
+
+        assertTrue(newCache(16, true, 4000).lookup("meeting a", List.of(gemini)).isEmpty());
+        assertTrue(newCache(16, true, 6000).lookup("meeting a", List.of(gemini)).isPresent());
+    }
+
+    @Test
+    void emptySummariesAreNotCached() throws Exception {
+        SummaryCache cache = newCache(16, true, 6000);
+        cache.store("meeting a", gemini, summary(" "));
+        assertTrue(cache.lookup("meeting a", List.of(gemini)).isEmpty());
+        assertTrue(table.isEmpty());
+    }
+
+    private SummaryCache newCache(int maxEntries, boolean persistent, int windowTokens) {
+        SummaryCacheRepository repository = (SummaryCacheRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{SummaryCacheRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByTranscriptSha256AndProviderAndModelAndPromptVersion" -> {
+                        tableReads.incrementAndGet();
+                        yield table.stream()
+                                .filter(e -> e.getTranscriptSha256().equals(args[0]) && e.getProvider().equals(args[1])
+                                        && e.getModel().equals(args[2]) && e.getPromptVersion().equals(args[3]))
+                                .findFirst();
+                    }
+                    case "save" -> {
+                        table.add((SummaryCacheEntry) args[0]);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new SummaryCache(repository, new WorkerResourceGuard(new SimpleMeterRegistry(), 2, 1, 1000),
+                new SimpleMeterRegistry(), maxEntries, persistent, 12000, windowTokens, 0);
+    }
+
+    private static SummaryResult summary(String text) {
+        return new SummaryResult(text, "", new ArrayList<>());
+    }
+
+    private static LlmProvider provider(String name, String model) {
+        return new LlmProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String model() {
+                return model;
+            }
+
+            @Override
+            public boolean isConfigured() {
+                return true;
+            }
+
+            @Override
+            public SummaryResult summarize(String systemPrompt, String userPrompt) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
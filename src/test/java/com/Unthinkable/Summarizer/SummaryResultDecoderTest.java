@@ -0,0 +1,71 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.SummaryResult;
+import com.Unthinkable.Summarizer.service.llm.SummaryResultDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryResultDecoderTest {
+
+    @Test
+    void decodesFencedLenientJson() {
+        String content = "Here is the summary:\n```json\n{\n"
+                + "  // model comment\n"
+                + "  'summaryText': \"Ship on Friday.\",\n"
+                + "  \"keyDecisions\": [\"Ship Friday\", \"Freeze Thursday\"],\n"
+                + "  \"extra\": {\"nested\": [1, 2, {\"x\": null}]},\n"
+                + "  \"actionItems\": [\n"
+                + "    {\"description\": \"Write docs\", \"assignedTo\": \"Charlie\", \"dueDate\": \"2025-03-14\"},\n"
+                + "    {\"description\": \"Tag release\", \"assignedTo\": null, \"dueDate\": \"2025-02-30\"},\n"
+                + "    \"Email customers\",\n"
+                + "  ],\n"
+                + "}\n```";
+
+        SummaryResult r = SummaryResultDecoder.decode(content);
+
+        assertEquals("Ship on Friday.", r.getSummaryText());
+        assertEquals("Ship Friday\nFreeze Thursday", r.getKeyDecisions());
+        assertEquals(3, r.getActionItems().size());
+        assertEquals("Charlie", r.getActionItems().get(0).getAssignedTo());
+        assertEquals(LocalDate.of(2025, 3, 14), r.getActionItems().get(0).getDueDate());
+        assertNull(r.getActionItems().get(1).getAssignedTo());
+        // Impossible date is dropped rather than failing the summary
+        assertNull(r.getActionItems().get(1).getDueDate());
+        assertEquals("Email customers", r.getActionItems().get(2).getDescription());
+    }
+
+    @Test
+    void missingFieldsDefaultLikeBefore() {
+        SummaryResult r = SummaryResultDecoder.decode("{\"actionItems\": [{\"assignedTo\": \"Bob\"}]}");
+        assertEquals("", r.getSummaryText());
+        assertEquals("", r.getKeyDecisions());
+        assertEquals("", r.getActionItems().get(0).getDescription());
+        assertNull(r.getActionItems().get(0).getDueDate());
+    }
+
+    @Test
+    void reportsWhereTheJsonBreaks() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> SummaryResultDecoder.decode("{\n  \"summaryText\": \"ok\",\n  \"keyDecisions\" \"missing colon\"\n}"));
+        assertTrue(ex.getMessage().contains("line 3"), ex.getMessage());
+
+        IllegalStateException none = assertThrows(IllegalStateException.class,
+                () -> SummaryResultDecoder.decode("Sorry, I cannot summarize this."));
+        assertTrue(none.getMessage().contains("no JSON object"));
+    }
+
+    @Test
+    void extractsTextFromResponseEnvelopes() {
+        String gemini = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"{\\\"summaryText\\\":\\\"hi\\\"}\"}],\"role\":\"model\"},"
+                + "\"finishReason\":\"STOP\"}],\"usageMetadata\":{\"promptTokenCount\":10}}";
+        String openai = "{\"id\":\"x\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"{}\"}}]}";
+
+        assertEquals("{\"summaryText\":\"hi\"}", SummaryResultDecoder.textAt(gemini, "candidates", "0", "content", "parts", "0", "text"));
+        assertEquals("{}", SummaryResultDecoder.textAt(openai, "choices", "0", "message", "content"));
+        assertEquals("", SummaryResultDecoder.textAt(openai, "choices", "1", "message", "content"));
+        assertEquals("", SummaryResultDecoder.textAt("{\"response\":null}", "response"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.model.TranscriptCacheEntry;
+import com.Unthinkable.Summarizer.repository.TranscriptCacheRepository;
+import com.Unthinkable.Summarizer.service.asr.AsrService;
+import com.Unthinkable.Summarizer.service.asr.TranscriptCache;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptCacheTest {
+
+    private static final String SHA = "ab".repeat(32);
+
+    private final List<TranscriptCacheEntry> saved = new ArrayList<>();
+    private final AtomicInteger asrCalls = new AtomicInteger();
+
+    @Test
+    void jobWaitsForTheStreamedTranscript() throws Exception {
+        TranscriptCache cache = newCache(60_000);
+        CompletableFuture<String> streaming = new CompletableFuture<>();
+        cache.expect(SHA, streaming);
+
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+                .execute(() -> streaming.complete("streamed words"));
+
+        assertEquals("streamed words", cache.transcribe(SHA, Path.of("upload.wav")));
+        assertEquals(0, asrCalls.get());
+    }
+
+    @Test
+    void failedStreamingFallsBackToTranscribingTheFile() throws Exception {
+        TranscriptCache cache = newCache(60_000);
+        cache.expect(SHA, CompletableFuture.failedFuture(new IllegalStateException("Speech API unavailable")));
+
+        assertEquals("file words", cache.transcribe(SHA, Path.of("upload.wav")));
+        assertEquals(1, asrCalls.get());
+        assertEquals(1, saved.size());
+        assertEquals("file words", saved.get(0).getTranscriptText());
+    }
+
+    @Test
+    void stalledStreamingFallsBackAfterTheWait() throws Exception {
+        TranscriptCache cache = newCache(50);
+        cache.expect(SHA, new CompletableFuture<>());
+
+        assertEquals("file words", cache.submit(SHA, Path.of("upload.wav")).transcript());
+        assertEquals(1, asrCalls.get());
+    }
+
+    @Test
+    void jobWithoutALocalStreamDoesNotWait() throws Exception {
+        TranscriptCache cache = newCache(60_000);
+        // Streaming for other audio, e.g. an upload this node is still receiving
+        cache.expect("cd".repeat(32), new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        assertEquals("file words", cache.transcribe(SHA, Path.of("upload.wav")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertEquals(1, asrCalls.get());
+    }
+
+    @Test
+    void streamFinishedElsewhereIsReadFromTheTable() throws Exception {
+        TranscriptCacheEntry stored = new TranscriptCacheEntry();
+        stored.setAudioSha256(SHA);
+        stored.setTranscriptText("streamed on another node");
+        saved.add(stored);
+
+        assertEquals("streamed on another node", newCache(60_000).transcribe(SHA, Path.of("upload.wav")));
+        assertEquals(0, asrCalls.get());
+    }
+
+    private TranscriptCache newCache(long streamAwaitMs) {
+        TranscriptCacheRepository repository = (TranscriptCacheRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{TranscriptCacheRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByAudioSha256AndLanguageCodeAndProvider" -> saved.stream()
+                            .filter(e -> e.getAudioSha256().equals(args[0])).findFirst();
+                    case "save" -> {
+                        saved.add((TranscriptCacheEntry) args[0]);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        AsrService asr = new AsrService() {
+            @Override
+            public String transcribe(Path audioFile) {
+                asrCalls.incrementAndGet();
+                return "file words";
+            }
+
+            @Override
+            public String providerName() {
+                return "gcp";
+            }
+
+            @Override
+            public String languageCode() {
+                return "en-US";
+            }
+        };
+        return new TranscriptCache(repository, asr, new WorkerResourceGuard(new SimpleMeterRegistry(), 2, 1, 1000),
+                new SimpleMeterRegistry(), streamAwaitMs);
+    }
+}
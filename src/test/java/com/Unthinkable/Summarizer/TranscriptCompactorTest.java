@@ -0,0 +1,72 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.llm.TranscriptCompactor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptCompactorTest {
+
+    private final TranscriptCompactor compactor = new TranscriptCompactor(true, 0);
+
+    @Test
+    void dropsFillersStuttersAndRepeatedPhrases() {
+        String raw = "Alice: Um, so I I I think we should, we should ship on, uh, Friday.\n"
+                + "Bob: Yeah th- the docs are are are not done, um.\n"
+                + "\n"
+                + "Charlie: I'll write them I'll write them I'll write them tomorrow.";
+
+        TranscriptCompactor.Result result = compactor.compact(raw);
+
+        assertEquals("Alice: so I think we should ship on, Friday.\n"
+                + "Bob: Yeah the docs are not done.\n"
+                + "Charlie: I'll write them tomorrow.", result.text());
+        assertTrue(result.tokensAfter() < result.tokensBefore());
+    }
+
+    @Test
+    void leavesCleanTextAlone() {
+        String clean = "Alice: The release is on Friday.\nBob: Docs are due Thursday.";
+        TranscriptCompactor.Result result = compactor.compact(clean);
+        assertEquals(clean, result.text());
+        assertEquals(result.tokensBefore(), result.tokensAfter());
+    }
+
+    @Test
+    void keepsWordsThatAreLegitimatelyDoubled() {
+        String raw = "Alice: She had had enough, and that that was fine. We we we agreed.";
+        assertEquals("Alice: She had had enough, and that that was fine. We agreed.", compactor.compact(raw).text());
+    }
+
+    @Test
+    void doesNotTrimUnlessABudgetIsSet() {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            raw.append("Bob: Status item number ").append(i).append(" is on track.\n");
+        }
+        String text = raw.toString().strip();
+        assertEquals(text, compactor.compact(text).text());
+    }
+
+    @Test
+    void trimsTheMiddleToFitTheBudget() {
+        StringBuilder raw = new StringBuilder("Alice: Agenda is the release.\n");
+        for (int i = 0; i < 500; i++) {
+            raw.append("Bob: Status item number ").append(i).append(" is on track.\n");
+        }
+        raw.append("Alice: Decision: ship Friday.");
+
+        TranscriptCompactor.Result result = new TranscriptCompactor(true, 1000).compact(raw.toString());
+
+        assertTrue(result.tokensAfter() <= 1000, "tokens " + result.tokensAfter());
+        assertTrue(result.text().startsWith("Alice: Agenda is the release.\n"));
+        assertTrue(result.text().endsWith("Alice: Decision: ship Friday."));
+        assertTrue(result.text().contains("[... middle of the meeting omitted ...]"));
+    }
+
+    @Test
+    void disabledPassesTextThrough() {
+        String raw = "um um the the";
+        assertEquals(raw, new TranscriptCompactor(false, 10).compact(raw).text());
+    }
+}
@@ -0,0 +1,98 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.asr.FfmpegPcmSource;
+import com.Unthinkable.Summarizer.service.asr.PcmChunk;
+import com.Unthinkable.Summarizer.service.asr.VadChunker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VadChunkerTest {
+
+    private static final int RATE = FfmpegPcmSource.SAMPLE_RATE;
+
+    @Test
+    void dropsLongSilenceAndCutsInThePause() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        tone(pcm, 10.0);
+        silence(pcm, 5.0);
+        tone(pcm, 10.0);
+
+        VadChunker chunker = new VadChunker(new ByteArrayInputStream(pcm.toByteArray()),
+                new VadChunker.Settings(5, 55, 400, 300));
+        List<PcmChunk> chunks = drain(chunker);
+
+        assertEquals(2, chunks.size());
+        assertEquals(25.0, chunker.totalSeconds(), 0.01);
+        // 5s gap minus the trailing pad, hangover and pre-roll that are kept around speech
+        assertTrue(chunker.skippedSeconds() > 4.0 && chunker.skippedSeconds() < 5.0, "skipped " + chunker.skippedSeconds());
+        assertEquals(0, chunks.get(0).startSample());
+        // Second chunk starts shortly before the speech resumes at 15s
+        assertTrue(chunks.get(1).startSeconds() > 14.5 && chunks.get(1).startSeconds() <= 15.0, "start " + chunks.get(1).startSeconds());
+    }
+
+    @Test
+    void silentInputProducesNoChunks() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        silence(pcm, 8.0);
+
+        VadChunker chunker = new VadChunker(new ByteArrayInputStream(pcm.toByteArray()),
+                new VadChunker.Settings(5, 55, 400, 300));
+
+        assertNull(chunker.next());
+        assertEquals(8.0, chunker.skippedSeconds(), 0.01);
+    }
+
+    @Test
+    void continuousSpeechIsCutAtMaxLength() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        tone(pcm, 25.0);
+
+        VadChunker chunker = new VadChunker(new ByteArrayInputStream(pcm.toByteArray()),
+                new VadChunker.Settings(5, 10, 400, 300));
+        List<PcmChunk> chunks = drain(chunker);
+
+        assertEquals(3, chunks.size());
+        long samples = 0;
+        for (PcmChunk c : chunks) {
+            assertTrue(c.durationSeconds() <= 10.0);
+            assertEquals(samples, c.startSample());
+            samples += c.data().length / FfmpegPcmSource.BYTES_PER_SAMPLE;
+        }
+        assertEquals(25L * RATE, samples);
+        assertEquals(0.0, chunker.skippedSeconds(), 0.001);
+    }
+
+    private static List<PcmChunk> drain(VadChunker chunker) throws Exception {
+        List<PcmChunk> out = new ArrayList<>();
+        PcmChunk c;
+        while ((c = chunker.next()) != null) out.add(c);
+        return out;
+    }
+
+    // Amplitude-modulated 220 Hz tone, loud enough to count as speech
+    private static void tone(ByteArrayOutputStream out, double seconds) {
+        int n = (int) (seconds * RATE);
+        for (int i = 0; i < n; i++) {
+            double env = 0.6 + 0.4 * Math.sin(2 * Math.PI * 3 * i / RATE);
+            write(out, (int) (8000 * env * Math.sin(2 * Math.PI * 220 * i / RATE)));
+        }
+    }
+
+    private static void silence(ByteArrayOutputStream out, double seconds) {
+        int n = (int) (seconds * RATE);
+        for (int i = 0; i < n; i++) {
+            write(out, (i * 7919 % 41) - 20); // faint noise floor
+        }
+    }
+
+    private static void write(ByteArrayOutputStream out, int sample) {
+        out.write(sample & 0xff);
+        out.write((sample >> 8) & 0xff);
+    }
+}
@@ -0,0 +1,62 @@
+package com.Unthinkable.Summarizer;
+
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard;
+import com.Unthinkable.Summarizer.service.provider.WorkerResourceGuard.Resource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerResourceGuardTest {
+
+    @Test
+    void timesOutWhenAllSlotsAreTaken() throws Exception {
+        WorkerResourceGuard guard = new WorkerResourceGuard(new SimpleMeterRegistry(), 1, 2, 50);
+
+        WorkerResourceGuard.Slot slot = guard.acquire(Resource.DB);
+        assertEquals(1, guard.inUse(Resource.DB));
+        assertThrows(IllegalStateException.class, () -> guard.acquire(Resource.DB));
+        // Resources are capped independently
+        guard.acquire(Resource.FFMPEG).close();
+
+        slot.close();
+        assertEquals(0, guard.inUse(Resource.DB));
+        assertEquals("ok", guard.db(() -> "ok"));
+    }
+
+    @Test
+    void releasingTwiceReturnsOnePermit() throws Exception {
+        WorkerResourceGuard guard = new WorkerResourceGuard(new SimpleMeterRegistry(), 2, 1, 50);
+
+        WorkerResourceGuard.Slot slot = guard.acquire(Resource.DB);
+        slot.close();
+        slot.close();
+        assertEquals(0, guard.inUse(Resource.DB));
+
+        guard.acquire(Resource.DB);
+        guard.acquire(Resource.DB);
+        assertThrows(IllegalStateException.class, () -> guard.acquire(Resource.DB));
+    }
+
+    @Test
+    void releasesSlotWhenWorkFails() throws Exception {
+        WorkerResourceGuard guard = new WorkerResourceGuard(new SimpleMeterRegistry(), 1, 1, 50);
+
+        assertThrows(IllegalArgumentException.class, () -> guard.db(() -> {
+            throw new IllegalArgumentException("boom");
+        }));
+        assertEquals(0, guard.inUse(Resource.DB));
+    }
+
+    @Test
+    void tryAcquireNeverWaits() throws Exception {
+        WorkerResourceGuard guard = new WorkerResourceGuard(new SimpleMeterRegistry(), 1, 1, 60_000);
+
+        WorkerResourceGuard.Slot slot = guard.tryAcquire(Resource.FFMPEG).orElseThrow();
+        assertTrue(guard.tryAcquire(Resource.FFMPEG).isEmpty());
+        assertEquals(0, guard.waiting(Resource.FFMPEG));
+
+        slot.close();
+        assertTrue(guard.tryAcquire(Resource.FFMPEG).isPresent());
+    }
+}